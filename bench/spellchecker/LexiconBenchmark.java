@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures raw lookups against the hash set, the perfect hash lexicon and
+ * the front coded lexicon across dictionary sizes, word lengths and the ratio
+ * of lookups that hit.
+ *
+ * @author russell
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LexiconBenchmark {
+
+    // Power of two so the cursor can wrap with a mask.
+    private static final int QUERY_COUNT = 4096;
+
+    @Param({"10000", "100000"})
+    public int dictionarySize;
+
+    @Param({"4", "8", "12"})
+    public int wordLength;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double hitRatio;
+
+    @Param({"HASH", "PERFECT_HASH", "FRONT_CODED"})
+    public LexiconType lexiconType;
+
+    private Lexicon lex;
+    private String[] queries;
+    private int cursor;
+
+    /**
+     * Builds the lexicon and the queries once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> words = SyntheticDictionary.words(dictionarySize);
+        switch (lexiconType) {
+            case PERFECT_HASH:
+                lex = new PerfectHashLexicon(words);
+                break;
+            case FRONT_CODED:
+                lex = new FrontCodedLexicon(words);
+                break;
+            default:
+                lex = new HashLexicon(words);
+                break;
+        }
+        queries = SyntheticDictionary.queries(words, wordLength, hitRatio, QUERY_COUNT);
+    }
+
+    /**
+     * A single lookup. The result is returned so it is not optimised away.
+     *
+     * @return The stored word or null on a miss.
+     */
+    @Benchmark
+    public String get() {
+        String query = queries[cursor++ & (QUERY_COUNT - 1)];
+        return lex.get(query);
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the two public entry points of the spell checker. Checking is
+ * measured across hit ratios, while suggestions are always measured with
+ * misspelled words since that is the only way they are used.
+ *
+ * @author russell
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpellCheckerBenchmark {
+
+    // Power of two so the cursor can wrap with a mask.
+    private static final int QUERY_COUNT = 1024;
+
+    /**
+     * Shared setup for both benchmarks.
+     */
+    @State(Scope.Thread)
+    public abstract static class CheckerState {
+
+        @Param({"10000", "100000"})
+        public int dictionarySize;
+
+        @Param({"4", "8", "12"})
+        public int wordLength;
+
+        SpellChecker spell;
+        String[] queries;
+        int cursor;
+
+        String next() {
+            return queries[cursor++ & (QUERY_COUNT - 1)];
+        }
+
+    }
+
+    /**
+     * Queries for wordValid with a mix of known and unknown words.
+     */
+    public static class ValidState extends CheckerState {
+
+        @Param({"0.1", "0.5", "0.9"})
+        public double hitRatio;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<String> words = SyntheticDictionary.words(dictionarySize);
+            spell = new SpellChecker(words);
+            queries = SyntheticDictionary.queries(words, wordLength, hitRatio, QUERY_COUNT);
+        }
+
+    }
+
+    /**
+     * Misspelled words for wordFix, each one edit away from a known word.
+     */
+    public static class FixState extends CheckerState {
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            List<String> words = SyntheticDictionary.words(dictionarySize);
+            spell = new SpellChecker(words);
+            queries = SyntheticDictionary.misspellings(words, wordLength, QUERY_COUNT);
+        }
+
+    }
+
+    @Benchmark
+    public boolean wordValid(ValidState state) {
+        return state.spell.wordValid(state.next());
+    }
+
+    @Benchmark
+    public String[] wordFix(FixState state) {
+        return state.spell.wordFix(state.next());
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Builds a synthetic dictionary and query sets for the benchmarks so they can
+ * run without the dictionary file. Everything is generated from a fixed seed
+ * so that every run of the suite measures the same words.
+ *
+ * @author russell
+ */
+public final class SyntheticDictionary {
+
+    // Rough English letter frequencies so the generated words hash and collide
+    // more like real ones than uniformly random strings would.
+    private static final String WEIGHTED_LETTERS
+            = "eeeeeeeeeeeetttttttttaaaaaaaaoooooooiiiiiiinnnnnnnssssssrrrrrr"
+            + "hhhhhlllldddccccuuummmfffppggwwyybvkxjqz";
+    private static final int MIN_LENGTH = 2;
+    private static final int MAX_LENGTH = 16;
+    private static final long SEED = 20160401L;
+
+    private SyntheticDictionary() {
+    }
+
+    /**
+     * Generates a list of unique words with lengths spread evenly between the
+     * minimum and maximum word length.
+     *
+     * @param size Number of words in the dictionary.
+     * @return The dictionary words.
+     */
+    public static List<String> words(int size) {
+        Random random = new Random(SEED);
+        Set<String> seen = new HashSet<>();
+        List<String> words = new ArrayList<>(size);
+        while (words.size() < size) {
+            int length = MIN_LENGTH + random.nextInt(MAX_LENGTH - MIN_LENGTH + 1);
+            String word = randomWord(random, length);
+            if (seen.add(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Builds lookup queries of a single length where roughly the given ratio
+     * of them are present in the dictionary.
+     *
+     * @param dictionary Words the queries are checked against.
+     * @param length Length of every query.
+     * @param hitRatio Fraction of queries that are in the dictionary.
+     * @param count Number of queries.
+     * @return The queries in a shuffled order.
+     */
+    public static String[] queries(List<String> dictionary, int length, double hitRatio, int count) {
+        Random random = new Random(SEED + length);
+        Set<String> known = new HashSet<>(dictionary);
+        List<String> sameLength = ofLength(dictionary, length);
+        String[] queries = new String[count];
+        for (int i = 0; i < count; i++) {
+            if (!sameLength.isEmpty() && random.nextDouble() < hitRatio) {
+                queries[i] = sameLength.get(random.nextInt(sameLength.size()));
+            } else {
+                queries[i] = missingWord(random, known, length);
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Builds misspelled words by applying a single random edit to dictionary
+     * words of the given length. Every result is absent from the dictionary so
+     * it goes down the full suggestion path.
+     *
+     * @param dictionary Words the misspellings are made from.
+     * @param length Length of the dictionary words before the edit.
+     * @param count Number of misspellings.
+     * @return The misspelled words.
+     */
+    public static String[] misspellings(List<String> dictionary, int length, int count) {
+        Random random = new Random(SEED ^ length);
+        Set<String> known = new HashSet<>(dictionary);
+        List<String> sameLength = ofLength(dictionary, length);
+        String[] misspellings = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word;
+            do {
+                String source = sameLength.isEmpty()
+                        ? randomWord(random, length)
+                        : sameLength.get(random.nextInt(sameLength.size()));
+                word = edit(random, source);
+            } while (known.contains(word));
+            misspellings[i] = word;
+        }
+        return misspellings;
+    }
+
+    /**
+     * Applies one swap, delete, insert or replace to a word.
+     */
+    private static String edit(Random random, String word) {
+        StringBuilder sb = new StringBuilder(word);
+        int pos = random.nextInt(word.length());
+        switch (random.nextInt(4)) {
+            case 0:
+                if (pos < word.length() - 1) {
+                    char temp = sb.charAt(pos);
+                    sb.setCharAt(pos, sb.charAt(pos + 1));
+                    sb.setCharAt(pos + 1, temp);
+                    break;
+                }
+            // Falls through to a replace at the last position.
+            case 1:
+                sb.setCharAt(pos, randomLetter(random));
+                break;
+            case 2:
+                if (word.length() > 1) {
+                    sb.deleteCharAt(pos);
+                    break;
+                }
+            // Falls through so one letter words grow instead.
+            default:
+                sb.insert(pos, randomLetter(random));
+                break;
+        }
+        return sb.toString();
+    }
+
+    private static String missingWord(Random random, Set<String> known, int length) {
+        String word;
+        do {
+            word = randomWord(random, length);
+        } while (known.contains(word));
+        return word;
+    }
+
+    private static List<String> ofLength(List<String> dictionary, int length) {
+        List<String> result = new ArrayList<>();
+        for (String word : dictionary) {
+            if (word.length() == length) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = randomLetter(random);
+        }
+        return new String(chars);
+    }
+
+    private static char randomLetter(Random random) {
+        return WEIGHTED_LETTERS.charAt(random.nextInt(WEIGHTED_LETTERS.length()));
+    }
+
+}
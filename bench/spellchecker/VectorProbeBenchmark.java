@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures wordFix with the edit candidates hashed one at a time and in
+ * batches with the Vector API. The forked JVM has to be started with the
+ * incubating module, which only JDK 16 and later have, so the build leaves
+ * this benchmark out on older JDKs.
+ *
+ * @author russell
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class VectorProbeBenchmark {
+
+    // Power of two so the cursor can wrap with a mask.
+    private static final int QUERY_COUNT = 1024;
+
+    @Param({"100000"})
+    public int dictionarySize;
+
+    @Param({"4", "8", "12"})
+    public int wordLength;
+
+    @Param({"false", "true"})
+    public boolean vectorProbes;
+
+    private SpellChecker spell;
+    private String[] queries;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> words = SyntheticDictionary.words(dictionarySize);
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setVectorProbes(vectorProbes);
+        spell = new SpellChecker(words, config);
+        queries = SyntheticDictionary.misspellings(words, wordLength, QUERY_COUNT);
+    }
+
+    @Benchmark
+    public String[] wordFix() {
+        return spell.wordFix(queries[cursor++ & (QUERY_COUNT - 1)]);
+    }
+
+}
@@ -0,0 +1,337 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The characters a dictionary is written in and which of them follow each
+ * other in its words. The EditProbe inserts and replaces only characters of
+ * the alphabet, and skips every candidate that has a pair of neighbouring
+ * characters no dictionary word has, since it cannot be a word. The start and
+ * the end of a word count as a character of their own, so a candidate that
+ * starts or ends with a character no word starts or ends with is skipped too.
+ * Skipping only ever drops candidates that would have missed.
+ *
+ * An alphabet is not changed once it is built and is safe to read from any
+ * number of threads.
+ *
+ * @author russell
+ */
+class Alphabet {
+
+    private static final int[] NONE = new int[0];
+
+    // Alphabets larger than this allow every pair instead of keeping a table
+    // of them, which would grow with the square of the alphabet.
+    private static final int MAX_PAIR_ALPHABET = 4096;
+
+    // The characters, sorted. A character's id is its index here, and the
+    // id one past the last stands for the start or end of a word.
+    private final char[] chars;
+    // ids[c] is the id of character c plus one, 0 if it is not in the
+    // alphabet.
+    private final int[] ids;
+    // Bit a * (size + 1) + b is set if id b follows id a in some word, null
+    // if every pair is allowed.
+    private final long[] pairs;
+    // The ids that follow each id, the start of a word included, in order.
+    private final int[][] next;
+
+    /**
+     * Collects the characters and the pairs of neighbouring characters of the
+     * dictionary words.
+     *
+     * @param words The dictionary words.
+     */
+    Alphabet(Iterable<String> words) {
+        this(charsOf(words, null), words);
+    }
+
+    /**
+     * Builds an alphabet that also has the characters and pairs of more
+     * words, for words added at runtime.
+     *
+     * @param more The added words.
+     * @return The larger alphabet, or this one if it already has them all.
+     */
+    Alphabet with(Iterable<String> more) {
+        if (covers(more)) {
+            return this;
+        }
+        // An alphabet that allows every pair stays that way.
+        Alphabet larger = new Alphabet(charsOf(more, chars), pairs == null ? null : more);
+        if (pairs != null && larger.pairs != null) {
+            int width = chars.length + 1;
+            int largerWidth = larger.chars.length + 1;
+            for (int a = 0; a < width; a++) {
+                for (int b = 0; b < width; b++) {
+                    if (follows(a, b)) {
+                        int to = larger.translate(a, this) * largerWidth + larger.translate(b, this);
+                        larger.pairs[to >>> 6] |= 1L << to;
+                    }
+                }
+            }
+            larger.fillNext();
+        }
+        return larger;
+    }
+
+    private Alphabet(char[] chars, Iterable<String> words) {
+        this.chars = chars;
+        ids = idsOf(chars);
+        int width = chars.length + 1;
+        if (words == null || chars.length > MAX_PAIR_ALPHABET) {
+            pairs = null;
+        } else {
+            pairs = new long[(int) (((long) width * width + 63) >>> 6)];
+            int edge = chars.length;
+            for (String word : words) {
+                int previous = edge;
+                for (int i = 0; i < word.length(); i++) {
+                    int id = id(word.charAt(i));
+                    int bit = previous * width + id;
+                    pairs[bit >>> 6] |= 1L << bit;
+                    previous = id;
+                }
+                int bit = previous * width + edge;
+                pairs[bit >>> 6] |= 1L << bit;
+            }
+        }
+        next = new int[width][];
+        fillNext();
+    }
+
+    private Alphabet(char[] chars, long[] pairs) {
+        this.chars = chars;
+        this.ids = idsOf(chars);
+        this.pairs = pairs;
+        next = new int[chars.length + 1][];
+        fillNext();
+    }
+
+    /**
+     * Reads an alphabet written by writeTo.
+     *
+     * @param in The buffer, read from its position on.
+     * @return The alphabet, or null if the buffer does not hold a valid one.
+     */
+    static Alphabet readFrom(ByteBuffer in) {
+        if (in.remaining() < 4) {
+            return null;
+        }
+        int size = in.getInt();
+        if (size < 0 || size > Character.MAX_VALUE + 1 || in.remaining() < 2L * size + 4) {
+            return null;
+        }
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = in.getChar();
+            if (i > 0 && chars[i] <= chars[i - 1]) {
+                return null;
+            }
+        }
+        int longs = in.getInt();
+        if (longs == -1) {
+            return new Alphabet(chars, (long[]) null);
+        }
+        long width = size + 1;
+        if (longs != (width * width + 63) >>> 6 || in.remaining() < 8L * longs) {
+            return null;
+        }
+        long[] pairs = new long[longs];
+        for (int i = 0; i < longs; i++) {
+            pairs[i] = in.getLong();
+        }
+        return new Alphabet(chars, pairs);
+    }
+
+    /**
+     * Writes the characters and the pairs, for a snapshot: int size, the
+     * characters, then int number of longs in the pair table or -1 if every
+     * pair is allowed, and the longs.
+     *
+     * @param out The buffer, written from its position on.
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(chars.length);
+        for (char c : chars) {
+            out.putChar(c);
+        }
+        if (pairs == null) {
+            out.putInt(-1);
+        } else {
+            out.putInt(pairs.length);
+            for (long bits : pairs) {
+                out.putLong(bits);
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The number of bytes writeTo writes.
+     */
+    int bytes() {
+        return 8 + 2 * chars.length + (pairs == null ? 0 : 8 * pairs.length);
+    }
+
+    /**
+     *
+     * @return The number of characters.
+     */
+    int size() {
+        return chars.length;
+    }
+
+    /**
+     *
+     * @return The id standing for the start and the end of a word.
+     */
+    int edge() {
+        return chars.length;
+    }
+
+    /**
+     *
+     * @return The character with an id.
+     */
+    char charAt(int id) {
+        return chars[id];
+    }
+
+    /**
+     *
+     * @return The id of a character, or -1 if it is not in the alphabet.
+     */
+    int id(char c) {
+        return c < ids.length ? ids[c] - 1 : -1;
+    }
+
+    /**
+     * Whether some word has one character followed by another. A character
+     * outside the alphabet never follows or is followed by anything.
+     *
+     * @param a The id of the first character or the start of a word.
+     * @param b The id of the second character or the end of a word.
+     * @return true if the pair occurs.
+     */
+    boolean follows(int a, int b) {
+        if (a < 0 || b < 0) {
+            return false;
+        }
+        if (pairs == null) {
+            return true;
+        }
+        int bit = a * (chars.length + 1) + b;
+        return (pairs[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     *
+     * @param a The id of a character or the start of a word.
+     * @return The ids of the characters that follow it in some word, in
+     * order. Empty for a character outside the alphabet.
+     */
+    int[] after(int a) {
+        return a < 0 ? NONE : next[a];
+    }
+
+    private void fillNext() {
+        int width = chars.length + 1;
+        int[] found = new int[chars.length];
+        for (int a = 0; a < width; a++) {
+            int count = 0;
+            for (int b = 0; b < chars.length; b++) {
+                if (follows(a, b)) {
+                    found[count++] = b;
+                }
+            }
+            next[a] = Arrays.copyOf(found, count);
+        }
+    }
+
+    private boolean covers(Iterable<String> words) {
+        for (String word : words) {
+            int previous = edge();
+            for (int i = 0; i < word.length(); i++) {
+                int id = id(word.charAt(i));
+                if (!follows(previous, id)) {
+                    return false;
+                }
+                previous = id;
+            }
+            if (!follows(previous, edge())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps an id of another alphabet, whose characters this one has, to this
+     * one.
+     */
+    private int translate(int id, Alphabet other) {
+        return id == other.edge() ? edge() : id(other.chars[id]);
+    }
+
+    private static int[] idsOf(char[] chars) {
+        int max = chars.length == 0 ? 0 : chars[chars.length - 1];
+        int[] ids = new int[max + 1];
+        for (int i = 0; i < chars.length; i++) {
+            ids[chars[i]] = i + 1;
+        }
+        return ids;
+    }
+
+    private static char[] charsOf(Iterable<String> words, char[] base) {
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        if (base != null) {
+            for (char c : base) {
+                seen[c] = true;
+            }
+        }
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                seen[word.charAt(i)] = true;
+            }
+        }
+        int count = 0;
+        for (boolean b : seen) {
+            if (b) {
+                count++;
+            }
+        }
+        char[] chars = new char[count];
+        for (int c = 0, i = 0; c < seen.length; c++) {
+            if (seen[c]) {
+                chars[i++] = (char) c;
+            }
+        }
+        return chars;
+    }
+
+}
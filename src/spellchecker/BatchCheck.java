@@ -0,0 +1,377 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks a stream of words without prompting and writes one result line per
+ * word, for scripts and nightly jobs. The input is either one word per line
+ * or free text, which is split into words the same way as by the
+ * DocumentChecker. Words are lower cased and trimmed like the interactive
+ * prompt does.
+ *
+ * Results are written as TSV, the status, the word and the suggestions
+ * separated by tabs:
+ *
+ * <pre>
+ * OK    word
+ * MISS  word  suggestion suggestion ...
+ * </pre>
+ *
+ * or as JSON lines of the form
+ * {"word":"wrod","valid":false,"suggestions":["word"]}.
+ *
+ * With more than one thread the words are read in chunks that are checked on
+ * a pool while the next ones are read. Chunks are written in the order they
+ * were read, and only a few are in flight at once so memory stays bounded
+ * however long the input is.
+ *
+ * @author russell
+ */
+class BatchCheck {
+
+    /**
+     * How the results are written.
+     */
+    enum Format {
+        TSV, JSONL
+    }
+
+    // Words checked together by one task.
+    private static final int CHUNK_SIZE = 4096;
+    // Runs of letters longer than this are not treated as words.
+    private static final int MAX_WORD_CHARS = 256;
+
+    private final SpellChecker spell;
+    private final Format format;
+    private final boolean text;
+    private final int threads;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * Creates a batch check.
+     *
+     * @param spell The spell checker, shared by all threads.
+     * @param format How the results are written.
+     * @param text true if the input is free text rather than one word per
+     * line.
+     * @param threads Threads checking words, 1 to check on the calling thread.
+     */
+    BatchCheck(SpellChecker spell, Format format, boolean text, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.spell = spell;
+        this.format = format;
+        this.text = text;
+        this.threads = threads;
+    }
+
+    /**
+     * Checks every word of the input and writes the results.
+     *
+     * @param input The words. It is not closed.
+     * @param output Where the results are written. It is flushed but not
+     * closed.
+     * @return The number of words checked.
+     * @throws IOException If the input cannot be read or the output written.
+     */
+    long run(Reader input, Writer output) throws IOException {
+        BufferedReader in = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input,
+                1 << 16);
+        Writer out = output instanceof BufferedWriter ? output : new BufferedWriter(output, 1 << 16);
+        Words words = text ? new TextWords(in) : new LineWords(in);
+        long count = threads == 1 ? runSerial(words, out) : runParallel(words, out);
+        out.flush();
+        return count;
+    }
+
+    private long runSerial(Words words, Writer out) throws IOException {
+        long count = 0;
+        String word;
+        while ((word = words.next()) != null) {
+            write(spell.check(word), out);
+            count++;
+        }
+        return count;
+    }
+
+    private long runParallel(Words words, Writer out) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // Chunks being checked, oldest first.
+        Deque<Future<CheckResult[]>> inFlight = new ArrayDeque<>();
+        long count = 0;
+        try {
+            String[] chunk;
+            while ((chunk = words.chunk()) != null) {
+                inFlight.add(pool.submit(new Chunk(chunk)));
+                count += chunk.length;
+                if (inFlight.size() >= 2 * threads) {
+                    writeAll(inFlight.poll(), out);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeAll(inFlight.poll(), out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return count;
+    }
+
+    private void writeAll(Future<CheckResult[]> chunk, Writer out) throws IOException {
+        CheckResult[] results;
+        try {
+            results = chunk.get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to check words", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking words", ex);
+        }
+        for (CheckResult result : results) {
+            write(result, out);
+        }
+    }
+
+    private void write(CheckResult result, Writer out) throws IOException {
+        line.setLength(0);
+        String[] fixes = result.getSuggestions();
+        if (format == Format.TSV) {
+            line.append(result.isValid() ? "OK\t" : "MISS\t").append(result.getWord());
+            if (!result.isValid()) {
+                line.append('\t');
+                if (fixes != null) {
+                    for (int j = 0; j < fixes.length; j++) {
+                        if (j > 0) {
+                            line.append(' ');
+                        }
+                        line.append(fixes[j]);
+                    }
+                }
+            }
+        } else {
+            line.append("{\"word\":");
+            quote(result.getWord());
+            line.append(",\"valid\":").append(result.isValid()).append(",\"suggestions\":[");
+            if (fixes != null) {
+                for (int j = 0; j < fixes.length; j++) {
+                    if (j > 0) {
+                        line.append(',');
+                    }
+                    quote(fixes[j]);
+                }
+            }
+            line.append("]}");
+        }
+        line.append('\n');
+        out.write(line.toString());
+    }
+
+    /**
+     * Appends a JSON string.
+     */
+    private void quote(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Checks one chunk of words on a pool thread.
+     */
+    private class Chunk implements Callable<CheckResult[]> {
+
+        private final String[] words;
+
+        Chunk(String[] words) {
+            this.words = words;
+        }
+
+        @Override
+        public CheckResult[] call() {
+            CheckResult[] results = new CheckResult[words.length];
+            for (int i = 0; i < words.length; i++) {
+                results[i] = spell.check(words[i]);
+            }
+            return results;
+        }
+
+    }
+
+    /**
+     * The words of the input, one at a time or a chunk at a time.
+     */
+    private abstract static class Words {
+
+        /**
+         *
+         * @return The next word, or null at the end of the input.
+         */
+        abstract String next() throws IOException;
+
+        /**
+         *
+         * @return Up to a chunk of words, or null at the end of the input.
+         */
+        String[] chunk() throws IOException {
+            String[] chunk = new String[CHUNK_SIZE];
+            int count = 0;
+            String word;
+            while (count < CHUNK_SIZE && (word = next()) != null) {
+                chunk[count++] = word;
+            }
+            if (count == 0) {
+                return null;
+            }
+            return count == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, count);
+        }
+
+    }
+
+    /**
+     * One word per line, blank lines are skipped.
+     */
+    private static class LineWords extends Words {
+
+        private final BufferedReader in;
+
+        LineWords(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        String next() throws IOException {
+            String text;
+            while ((text = in.readLine()) != null) {
+                String word = text.toLowerCase(Locale.ROOT).trim();
+                if (!word.isEmpty()) {
+                    return word;
+                }
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Free text. A word is a run of the characters DocumentChecker.isWordChar
+     * accepts.
+     */
+    private static class TextWords extends Words {
+
+        private final BufferedReader in;
+        private final char[] buffer = new char[1 << 16];
+        private final StringBuilder word = new StringBuilder();
+        private int position;
+        private int limit;
+        // A character read after a lone high surrogate, or -1.
+        private int pushedBack = -1;
+
+        TextWords(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        String next() throws IOException {
+            word.setLength(0);
+            boolean tooLong = false;
+            int c;
+            while ((c = read()) >= 0) {
+                int codePoint = c;
+                if (Character.isHighSurrogate((char) c)) {
+                    int low = read();
+                    if (low >= 0 && Character.isLowSurrogate((char) low)) {
+                        codePoint = Character.toCodePoint((char) c, (char) low);
+                    } else {
+                        pushedBack = low;
+                    }
+                }
+                if (DocumentChecker.isWordChar(codePoint)) {
+                    if (word.length() < MAX_WORD_CHARS) {
+                        word.appendCodePoint(codePoint);
+                    } else {
+                        tooLong = true;
+                    }
+                } else if (word.length() > 0) {
+                    if (!tooLong) {
+                        return finish();
+                    }
+                    word.setLength(0);
+                    tooLong = false;
+                }
+            }
+            return word.length() > 0 && !tooLong ? finish() : null;
+        }
+
+        /**
+         * Reads the next character of the input, or -1 at its end.
+         */
+        private int read() throws IOException {
+            if (pushedBack >= 0) {
+                int c = pushedBack;
+                pushedBack = -1;
+                return c;
+            }
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private String finish() {
+            return word.toString().toLowerCase(Locale.ROOT);
+        }
+
+    }
+
+}
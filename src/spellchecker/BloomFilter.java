@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Blocked Bloom filter over the hash codes of the lexicon words. Every word
+ * sets all its bits inside one 512 bit block, which is a single cache line,
+ * so a lookup touches one line of memory whatever the number of hashes. The
+ * block and the bits are taken from the String hash code of the word, which
+ * lets the EditProbe use the hash it already builds incrementally.
+ *
+ * The filter is only written while it is built and is safe to read from any
+ * number of threads afterwards.
+ *
+ * @author russell
+ */
+class BloomFilter {
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / 64;
+    private static final int MAX_HASHES = 16;
+
+    private final long[] bits;
+    private final int blocks;
+    private final int hashes;
+
+    /**
+     * Sizes the filter for a number of words and a false positive rate.
+     *
+     * @param expected Number of words that will be added.
+     * @param falsePositiveRate Wanted share of absent words let through, more
+     * than 0 and less than 1.
+     */
+    BloomFilter(int expected, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("false positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        double ln2 = Math.log(2);
+        double bitsPerWord = -Math.log(falsePositiveRate) / (ln2 * ln2);
+        long totalBits = (long) Math.ceil(Math.max(1, expected) * bitsPerWord);
+        long blockCount = Math.max(1, (totalBits + BLOCK_BITS - 1) / BLOCK_BITS);
+        if (blockCount * BLOCK_LONGS > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Bloom filter too large for " + expected + " words");
+        }
+        blocks = (int) blockCount;
+        bits = new long[blocks * BLOCK_LONGS];
+        hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerWord * ln2)));
+    }
+
+    /**
+     * Adds a word by its hash code.
+     *
+     * @param hash The String hash code of the word.
+     */
+    void add(int hash) {
+        long mixed = mix(hash);
+        int base = block(mixed) * BLOCK_LONGS;
+        int h1 = (int) mixed;
+        int h2 = step(mixed);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            bits[base + (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a word may be in the lexicon.
+     *
+     * @param hash The String hash code of the word.
+     * @return false if the word is certainly not in the lexicon.
+     */
+    boolean mightContain(int hash) {
+        long mixed = mix(hash);
+        int base = block(mixed) * BLOCK_LONGS;
+        int h1 = (int) mixed;
+        int h2 = step(mixed);
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & (BLOCK_BITS - 1);
+            if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     *
+     * @return The size of the filter in bits.
+     */
+    long sizeInBits() {
+        return (long) bits.length * 64;
+    }
+
+    /**
+     *
+     * @return The number of bits set per word.
+     */
+    int hashes() {
+        return hashes;
+    }
+
+    /**
+     * Picks a block from bits of the mixed hash that the bit positions do not
+     * use, scaling them to the number of blocks without a division.
+     */
+    private int block(long mixed) {
+        return (int) (((mixed >>> 40) * blocks) >>> 24);
+    }
+
+    /**
+     * Second hash for the bit positions, kept odd so it never repeats a bit
+     * before going around the block.
+     */
+    private static int step(long mixed) {
+        return (int) ((mixed * 0x9e3779b97f4a7c15L) >>> 32) | 1;
+    }
+
+    /**
+     * Spreads the 32 bits of the hash code over 64 bits.
+     */
+    private static long mix(int hash) {
+        long h = hash * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 32;
+        h *= 0xd6e8feb86659fd93L;
+        h ^= h >>> 32;
+        return h;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Size of the Bloom filter in front of the lexicon and what it has done so
+ * far. The counters are read one after the other while lookups go on, so
+ * they can be a few lookups apart from each other.
+ *
+ * @author russell
+ */
+public class BloomFilterStats {
+
+    private final long sizeInBits;
+    private final int hashes;
+    private final double configuredFalsePositiveRate;
+    private final long rejected;
+    private final long passed;
+    private final long falsePositives;
+
+    BloomFilterStats(long sizeInBits, int hashes, double configuredFalsePositiveRate,
+            long rejected, long passed, long falsePositives) {
+        this.sizeInBits = sizeInBits;
+        this.hashes = hashes;
+        this.configuredFalsePositiveRate = configuredFalsePositiveRate;
+        this.rejected = rejected;
+        this.passed = passed;
+        this.falsePositives = falsePositives;
+    }
+
+    /**
+     *
+     * @return The size of the filter in bits.
+     */
+    public long getSizeInBits() {
+        return sizeInBits;
+    }
+
+    /**
+     *
+     * @return The number of bits set per word.
+     */
+    public int getHashes() {
+        return hashes;
+    }
+
+    /**
+     *
+     * @return The false positive rate the filter was sized for.
+     */
+    public double getConfiguredFalsePositiveRate() {
+        return configuredFalsePositiveRate;
+    }
+
+    /**
+     *
+     * @return Lookups turned away by the filter alone.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     *
+     * @return Lookups the filter passed on to the lexicon.
+     */
+    public long getPassed() {
+        return passed;
+    }
+
+    /**
+     *
+     * @return Lookups passed on that the lexicon did not have.
+     */
+    public long getFalsePositives() {
+        return falsePositives;
+    }
+
+    /**
+     *
+     * @return The share of absent words the filter let through, or 0 if no
+     * absent word has been looked up yet.
+     */
+    public double getObservedFalsePositiveRate() {
+        long absent = rejected + falsePositives;
+        return absent == 0 ? 0 : (double) falsePositives / absent;
+    }
+
+    @Override
+    public String toString() {
+        return "bits=" + sizeInBits + " hashes=" + hashes + " rejected=" + rejected + " passed=" + passed
+                + " falsePositives=" + falsePositives + " observedRate=" + getObservedFalsePositiveRate();
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Counters of the suggestion cache. They are read one after the other while
+ * lookups go on, so they can be a few lookups apart from each other.
+ *
+ * @author russell
+ */
+public class CacheStats {
+
+    private final int capacity;
+    private final int size;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    CacheStats(int capacity, int size, long hits, long misses, long evictions) {
+        this.capacity = capacity;
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    /**
+     *
+     * @return The largest number of words the cache keeps.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     *
+     * @return The number of words cached now.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     *
+     * @return Lookups answered from the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     *
+     * @return Lookups that had to search for suggestions.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     *
+     * @return Words dropped to make room for others.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     *
+     * @return The share of lookups answered from the cache, or 0 if there
+     * have been none.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "capacity=" + capacity + " size=" + size + " hits=" + hits + " misses=" + misses
+                + " evictions=" + evictions + " hitRate=" + getHitRate();
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hashes the candidates an edit makes at one position of a word. Every
+ * candidate there only differs in the character written at the position, so
+ * its String hash is the hash of the rest of the word plus the character
+ * times a power of 31, and a whole batch of them is one multiply and add per
+ * character.
+ *
+ * This class does the batch one character at a time. The Vector API version
+ * lives in the optional vector source set, which needs the incubating
+ * jdk.incubator.vector module to build and to run, so it is only loaded by
+ * name when asked for and the module is there.
+ *
+ * Only the hashing is batched. Each candidate is still looked up on its own
+ * with Lexicon.get. The hash tables compare the cached hash or fingerprint of
+ * a slot before any characters, so nearly every miss there is settled by one
+ * int compare, and the word graph and front coded lexicons walk formats of
+ * their own. None of them keeps its keys in a flat array a vector compare
+ * could load from.
+ *
+ * @author russell
+ */
+class CandidateHasher {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CLASS = "spellchecker.VectorCandidateHasher";
+
+    static final CandidateHasher SCALAR = new CandidateHasher();
+
+    CandidateHasher() {
+    }
+
+    /**
+     * Finds the hasher to probe with.
+     *
+     * @param vector true to use the Vector API when it is available.
+     * @return The Vector API hasher, or the scalar one if it was not asked
+     * for or cannot be loaded.
+     */
+    static CandidateHasher load(boolean vector) {
+        if (!vector) {
+            return SCALAR;
+        }
+        Logger logger = Logger.getLogger(CandidateHasher.class.getName());
+        if (!ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            logger.log(Level.INFO, "{0} is not available, probing without it; run with --add-modules {0}",
+                    VECTOR_MODULE);
+            return SCALAR;
+        }
+        try {
+            return (CandidateHasher) Class.forName(VECTOR_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            // Built without the vector source set, or for a newer runtime.
+            logger.log(Level.INFO, "vector probes are not available, probing without them", ex);
+            return SCALAR;
+        }
+    }
+
+    /**
+     * Hashes a batch of candidates.
+     *
+     * @param base Hash of the candidate with a zero at the position.
+     * @param step 31 to the power of the number of characters after the
+     * position.
+     * @param chars The characters written at the position.
+     * @param count Number of characters in the batch.
+     * @param hashes Receives the hash of each candidate, in the same order.
+     */
+    void hash(int base, int step, int[] chars, int count, int[] hashes) {
+        for (int k = 0; k < count; k++) {
+            hashes[k] = base + chars[k] * step;
+        }
+    }
+
+    /**
+     *
+     * @return true if the batches are hashed with vector instructions.
+     */
+    boolean isVectorized() {
+        return false;
+    }
+
+}
@@ -0,0 +1,308 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks a stream of words and publishes a result for each, in the order the
+ * words arrived. Words are only requested from upstream as the subscriber
+ * requests results, so a slow subscriber slows the source down instead of
+ * piling words up in memory.
+ *
+ * The checks run on an executor, one at a time for each processor, so
+ * neither the source's thread nor the subscriber's is held by a long word.
+ * Streams that need more throughput can be split over several processors.
+ *
+ * A processor takes one subscriber, later ones get an error. If a check
+ * throws, the source is cancelled and the subscriber gets the exception.
+ *
+ * @author russell
+ */
+public class CheckProcessor implements Flow.Processor<String, CheckResult> {
+
+    private final SpellChecker spell;
+    private final int layers;
+    private final Executor executor;
+    private final Queue<String> words = new ConcurrentLinkedQueue<>();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private Flow.Subscription upstream;
+    private long upstreamDemand;
+    private boolean upstreamCancelled;
+
+    private volatile Flow.Subscriber<? super CheckResult> downstream;
+    private volatile boolean done;
+    private volatile Throwable error;
+    private volatile boolean cancelled;
+
+    // Only touched by the drain, which never runs on two threads at once.
+    private long emitted;
+    private boolean terminated;
+
+    private final Runnable drain = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    /**
+     * Creates a processor that checks on the common fork/join pool.
+     *
+     * @param spell The spell checker to check with.
+     */
+    public CheckProcessor(SpellChecker spell) {
+        this(spell, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a processor that checks against the whole dictionary.
+     *
+     * @param spell The spell checker to check with.
+     * @param executor The executor the checks and the signals to the
+     * subscriber run on.
+     */
+    public CheckProcessor(SpellChecker spell, Executor executor) {
+        this(spell, SpellChecker.ALL_LAYERS, executor);
+    }
+
+    /**
+     * Creates a processor that checks against some layers of the dictionary.
+     *
+     * @param spell The spell checker to check with.
+     * @param layers The layers to check against, from layerMask.
+     * @param executor The executor the checks and the signals to the
+     * subscriber run on.
+     */
+    public CheckProcessor(SpellChecker spell, int layers, Executor executor) {
+        if (spell == null || executor == null) {
+            throw new NullPointerException();
+        }
+        this.spell = spell;
+        this.layers = layers;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CheckResult> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        synchronized (this) {
+            if (downstream == null) {
+                downstream = subscriber;
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                        if (n <= 0) {
+                            fail(new IllegalArgumentException("non-positive request: " + n));
+                        } else {
+                            demand(n);
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                        CheckProcessor.this.cancel();
+                    }
+                });
+                // The source may have finished before anyone subscribed.
+                if (done) {
+                    schedule();
+                }
+                return;
+            }
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onError(new IllegalStateException("CheckProcessor takes only one subscriber"));
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (subscription == null) {
+            throw new NullPointerException("subscription");
+        }
+        synchronized (this) {
+            if (upstream == null && !upstreamCancelled) {
+                upstream = subscription;
+                // Passes on what the subscriber asked for before the source came.
+                if (upstreamDemand > 0) {
+                    subscription.request(upstreamDemand);
+                    upstreamDemand = 0;
+                }
+                return;
+            }
+        }
+        subscription.cancel();
+    }
+
+    @Override
+    public void onNext(String word) {
+        if (word == null) {
+            throw new NullPointerException("word");
+        }
+        if (!cancelled) {
+            words.offer(word);
+            schedule();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (throwable == null) {
+            throw new NullPointerException("throwable");
+        }
+        error = throwable;
+        done = true;
+        schedule();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        schedule();
+    }
+
+    /**
+     * Adds to the subscriber's demand and asks the source for as many words.
+     */
+    private void demand(long n) {
+        long current;
+        long next;
+        do {
+            current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                break;
+            }
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!requested.compareAndSet(current, next));
+        synchronized (this) {
+            if (upstreamCancelled) {
+                return;
+            }
+            if (upstream == null) {
+                upstreamDemand = upstreamDemand + n < 0 ? Long.MAX_VALUE : upstreamDemand + n;
+            } else {
+                upstream.request(n);
+            }
+        }
+        schedule();
+    }
+
+    private void cancel() {
+        cancelled = true;
+        cancelUpstream();
+        schedule();
+    }
+
+    /**
+     * Stops the stream with an error for the subscriber.
+     */
+    private void fail(Throwable throwable) {
+        cancelUpstream();
+        onError(throwable);
+    }
+
+    private synchronized void cancelUpstream() {
+        if (!upstreamCancelled) {
+            upstreamCancelled = true;
+            if (upstream != null) {
+                upstream.cancel();
+            }
+        }
+    }
+
+    /**
+     * Runs the drain unless it is running already, in which case it goes
+     * round once more.
+     */
+    private void schedule() {
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(drain);
+        }
+    }
+
+    /**
+     * Checks queued words while the subscriber has demand and signals the end
+     * of the stream once every word has been published.
+     */
+    private void drain() {
+        int missed = 1;
+        for (;;) {
+            Flow.Subscriber<? super CheckResult> subscriber = downstream;
+            if (cancelled || terminated) {
+                words.clear();
+            } else if (subscriber != null) {
+                long limit = requested.get();
+                String word;
+                while (emitted != limit && !cancelled && error == null
+                        && (word = words.poll()) != null) {
+                    CheckResult result;
+                    try {
+                        result = spell.check(word, layers);
+                    } catch (RuntimeException ex) {
+                        fail(ex);
+                        break;
+                    }
+                    subscriber.onNext(result);
+                    emitted++;
+                    if (emitted == limit) {
+                        limit = requested.get();
+                    }
+                }
+                // An error overtakes words still queued, completion waits for them.
+                if (done && !cancelled && (error != null || words.isEmpty())) {
+                    terminated = true;
+                    words.clear();
+                    if (error != null) {
+                        subscriber.onError(error);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
+            missed = pending.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The outcome of checking one word: whether it is spelled correctly and, if
+ * not, the suggested corrections.
+ *
+ * @author russell
+ */
+public class CheckResult {
+
+    private static final String[] NONE = new String[0];
+
+    private final String word;
+    private final boolean valid;
+    private final String[] suggestions;
+
+    /**
+     * Creates the result of a check.
+     *
+     * @param word The word that was checked.
+     * @param valid true if the word is spelled correctly.
+     * @param suggestions Corrections for the word, may be null if there are
+     * none.
+     */
+    public CheckResult(String word, boolean valid, String[] suggestions) {
+        this.word = word;
+        this.valid = valid;
+        this.suggestions = suggestions == null ? NONE : suggestions;
+    }
+
+    /**
+     *
+     * @return The word that was checked.
+     */
+    public String getWord() {
+        return word;
+    }
+
+    /**
+     *
+     * @return true if the word is spelled correctly.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     *
+     * @return The suggested corrections, empty if the word is valid or no
+     * correction was found.
+     */
+    public String[] getSuggestions() {
+        return suggestions.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(word);
+        sb.append(valid ? " valid" : " misspelled");
+        for (String suggestion : suggestions) {
+            sb.append(' ').append(suggestion);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the corrections a suggestion engine finds for one word. Every
+ * correction comes with a rank, lower is better: the edit distance for the
+ * engines that measure it, or the kind of edit for the EditProbe. A word is
+ * only kept once, with the rank it was first found with.
+ *
+ * Engines call tick for every probe they make and stop once it returns
+ * false. This collector never stops an engine, RankedCorrections does once
+ * its budget is spent.
+ *
+ * @author russell
+ */
+class Corrections {
+
+    /**
+     * Ranks of the edits made by the EditProbe, in the order it makes them.
+     */
+    static final int SWAP = 0;
+    static final int DELETE = 1;
+    static final int INSERT = 2;
+    static final int REPLACE = 3;
+    /**
+     * Rank of a sound-alike word at distance 0 from the PhoneticIndex, after
+     * what the engines find. Its distance is added to it.
+     */
+    static final int PHONETIC = 4;
+
+    // Word to rank, in the order the words were found.
+    private final Map<String, Integer> found = new LinkedHashMap<>();
+    // The words that may be suggested, null for any the engine finds.
+    private Lexicon allowed;
+
+    /**
+     * Adds a correction unless it has been found before.
+     *
+     * @param word The correction.
+     * @param rank How good the correction is, lower is better.
+     */
+    void add(String word, int rank) {
+        if (!excluded(word) && !found.containsKey(word)) {
+            found.put(word, rank);
+        }
+    }
+
+    /**
+     * Keeps the corrections to the words of a lexicon, for words an index
+     * holds that are not to be suggested: words removed from the dictionary
+     * since the index was built, or words of layers that are not enabled.
+     *
+     * @param words The words that may be suggested, or null for any.
+     */
+    void restrict(Lexicon words) {
+        allowed = words;
+    }
+
+    /**
+     *
+     * @return true if the word must not be suggested.
+     */
+    boolean excluded(String word) {
+        return allowed != null && allowed.get(word) == null;
+    }
+
+    /**
+     * Counts one probe.
+     *
+     * @return false if the engine should stop searching.
+     */
+    boolean tick() {
+        return true;
+    }
+
+    /**
+     *
+     * @return true if the engine should stop searching.
+     */
+    boolean stopped() {
+        return false;
+    }
+
+    /**
+     *
+     * @return true if nothing was found.
+     */
+    boolean isEmpty() {
+        return found.isEmpty();
+    }
+
+    /**
+     *
+     * @return The corrections best rank first, and in the order they were
+     * found within a rank.
+     */
+    String[] toArray() {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(found.entrySet());
+        // The sort is stable, so the order of finding is kept within a rank.
+        Collections.sort(entries, new Comparator<Map.Entry<String, Integer>>() {
+            @Override
+            public int compare(Map.Entry<String, Integer> a, Map.Entry<String, Integer> b) {
+                return Integer.compare(a.getValue(), b.getValue());
+            }
+        });
+        String[] words = new String[entries.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = entries.get(i).getKey();
+        }
+        return words;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from every string that can be made by deleting up to a maximum number
+ * of characters from a dictionary word back to the words it came from. Two
+ * words within that distance of each other always share a delete variant, so
+ * a lookup only has to probe the delete variants of the misspelled word and
+ * never generates inserts or replaces over the alphabet.
+ *
+ * @author russell
+ */
+class DeleteIndex {
+
+    private final int maxDistance;
+    // Delete variant to either a single String or a String[] of words.
+    private final Map<String, Object> variants;
+
+    /**
+     * Builds the index for the given dictionary words.
+     *
+     * @param words The dictionary words.
+     * @param maxDistance Largest distance suggestions can be from the word.
+     */
+    DeleteIndex(List<String> words, int maxDistance) {
+        this.maxDistance = maxDistance;
+        this.variants = new HashMap<>(words.size() * 4);
+        Set<String> deletes = new HashSet<>();
+        for (String word : words) {
+            deletes.clear();
+            deletes.add(word);
+            collectDeletes(word, maxDistance, deletes);
+            for (String variant : deletes) {
+                put(variant, word);
+            }
+        }
+    }
+
+    /**
+     * Finds the dictionary words within the maximum distance of a word. The
+     * delete variants of the word are made one distance at a time, and each
+     * is looked up as soon as it is made. Every lookup and every candidate
+     * whose distance is checked counts as a probe, so a budget stops the
+     * search before it makes the many variants of a long word, and the
+     * closest variants are always tried first.
+     *
+     * @param word The misspelled word.
+     * @param corrections Hits are added here, ranked by their distance.
+     */
+    void suggest(String word, Corrections corrections) {
+        Set<String> probed = new HashSet<>();
+        Set<String> seen = new HashSet<>();
+        List<String> level = new ArrayList<>();
+        level.add(word);
+        probed.add(word);
+        if (!lookup(word, word, seen, corrections)) {
+            return;
+        }
+        for (int d = 1; d <= maxDistance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String variant : level) {
+                for (int i = 0; i < variant.length(); i++) {
+                    String delete = variant.substring(0, i) + variant.substring(i + 1);
+                    if (!probed.add(delete)) {
+                        continue;
+                    }
+                    if (!lookup(word, delete, seen, corrections)) {
+                        return;
+                    }
+                    next.add(delete);
+                }
+            }
+            level = next;
+        }
+    }
+
+    /**
+     * Looks up one delete variant and checks the words it came from.
+     *
+     * @return false once the budget is spent.
+     */
+    private boolean lookup(String word, String variant, Set<String> seen, Corrections corrections) {
+        if (!corrections.tick()) {
+            return false;
+        }
+        Object entry = variants.get(variant);
+        if (entry instanceof String) {
+            return verify(word, (String) entry, seen, corrections);
+        }
+        if (entry != null) {
+            for (String candidate : (String[]) entry) {
+                if (!verify(word, candidate, seen, corrections)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sharing a delete variant does not guarantee two words are close, for
+     * example "ab" and "ba" share "a" after deleting different characters, so
+     * every candidate has its real distance checked.
+     *
+     * @return false once the budget is spent.
+     */
+    private boolean verify(String word, String candidate, Set<String> seen, Corrections corrections) {
+        if (seen.add(candidate)) {
+            if (!corrections.tick()) {
+                return false;
+            }
+            int d = EditDistance.distance(word, candidate, maxDistance);
+            if (d <= maxDistance) {
+                corrections.add(candidate, d);
+            }
+        }
+        return true;
+    }
+
+    private void put(String variant, String word) {
+        Object entry = variants.get(variant);
+        if (entry == null) {
+            // Most variants belong to one word, which is stored without an array.
+            variants.put(variant, word);
+        } else if (entry instanceof String) {
+            variants.put(variant, new String[]{(String) entry, word});
+        } else {
+            String[] old = (String[]) entry;
+            String[] grown = new String[old.length + 1];
+            System.arraycopy(old, 0, grown, 0, old.length);
+            grown[old.length] = word;
+            variants.put(variant, grown);
+        }
+    }
+
+    /**
+     * Adds every string made by deleting between one and the given number of
+     * characters from the word.
+     */
+    private static void collectDeletes(String word, int deletes, Set<String> out) {
+        if (deletes == 0 || word.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            String variant = word.substring(0, i) + word.substring(i + 1);
+            // A variant seen before has had its own deletes collected already.
+            if (out.add(variant)) {
+                collectDeletes(variant, deletes - 1, out);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * A misspelled word in a document held by an EditorSession, with where it
+ * is and the corrections for it.
+ *
+ * @author russell
+ */
+public class Diagnostic {
+
+    private final int offset;
+    private final int length;
+    private final CheckResult result;
+
+    /**
+     * Creates a diagnostic.
+     *
+     * @param offset Position of the first character of the word.
+     * @param length Number of characters of the word in the document.
+     * @param result The result of checking the word.
+     */
+    Diagnostic(int offset, int length, CheckResult result) {
+        this.offset = offset;
+        this.length = length;
+        this.result = result;
+    }
+
+    /**
+     *
+     * @return Position of the first character of the word in the document.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     *
+     * @return Number of characters of the word in the document.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     *
+     * @return The word that was checked, lower cased.
+     */
+    public String getWord() {
+        return result.getWord();
+    }
+
+    /**
+     *
+     * @return The suggested corrections, empty if none were found.
+     */
+    public String[] getSuggestions() {
+        return result.getSuggestions();
+    }
+
+    @Override
+    public String toString() {
+        return offset + "+" + length + " " + result;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How the diagnostics of an EditorSession changed with an edit. Diagnostics
+ * in neither list still hold, those after the edit moved by the change in
+ * length of the text.
+ *
+ * @author russell
+ */
+public class DiagnosticDiff {
+
+    private final List<Diagnostic> removed;
+    private final List<Diagnostic> added;
+
+    /**
+     * Creates a diff.
+     *
+     * @param removed Diagnostics that no longer hold, at their offsets before
+     * the edit.
+     * @param added New diagnostics, at their offsets after the edit.
+     */
+    DiagnosticDiff(List<Diagnostic> removed, List<Diagnostic> added) {
+        this.removed = Collections.unmodifiableList(removed);
+        this.added = Collections.unmodifiableList(added);
+    }
+
+    /**
+     *
+     * @return Diagnostics that no longer hold, in document order at their
+     * offsets before the edit.
+     */
+    public List<Diagnostic> getRemoved() {
+        return removed;
+    }
+
+    /**
+     *
+     * @return New diagnostics, in document order at their offsets after the
+     * edit.
+     */
+    public List<Diagnostic> getAdded() {
+        return added;
+    }
+
+    /**
+     *
+     * @return true if no diagnostic changed.
+     */
+    public boolean isEmpty() {
+        return removed.isEmpty() && added.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "removed=" + removed + " added=" + added;
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Spell checks whole text files without reading them into memory. The file is
+ * memory mapped a window at a time and split into words on the fly, and the
+ * words flow through a pipeline of stages, each on its own thread:
+ * tokenize, check, suggest and write. Stages hand batches of words to each
+ * other through small bounded queues, so reading the file, checking and
+ * writing the results overlap and a slow stage holds back the ones before it.
+ *
+ * Every misspelled word is written as one line holding its byte offset in
+ * the file, the word and its suggestions, separated by tabs.
+ *
+ * A word is a run of letters, ASCII or any other letter or combining mark in
+ * UTF-8. Other characters, such as curly quotes, dashes and non-breaking
+ * spaces, separate words the same as ASCII punctuation does. Words are lower
+ * cased before they are checked, the same as the interactive prompt.
+ *
+ * @author russell
+ */
+public class DocumentChecker {
+
+    // Bytes of the file mapped at once.
+    private static final int WINDOW = 64 << 20;
+    // Runs of letters longer than this are not treated as words.
+    private static final int MAX_WORD_BYTES = 256;
+    private static final int BATCH_SIZE = 1024;
+    // Batches waiting between two stages.
+    private static final int QUEUE_DEPTH = 16;
+
+    private final SpellChecker spell;
+
+    /**
+     * Creates a document checker that checks against the given spell checker.
+     *
+     * @param spell The spell checker, shared by all stages.
+     */
+    public DocumentChecker(SpellChecker spell) {
+        this.spell = spell;
+    }
+
+    /**
+     * Start application. Checks the file given as the first argument and
+     * writes the misspellings to the file given as the second argument, or to
+     * standard output if there is none.
+     *
+     * @param args Input file and optional output file.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: DocumentChecker <input> [output]");
+            System.exit(2);
+        }
+        DocumentChecker checker = new DocumentChecker(new SpellChecker());
+        Writer out = args.length > 1
+                ? Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        try {
+            checker.check(Paths.get(args[0]), out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Checks a file and writes every misspelled word to the output. The calling
+     * thread does the writing while the other stages run on their own threads.
+     *
+     * @param input The text file, expected to be UTF-8.
+     * @param output Where the misspellings are written. It is flushed but not
+     * closed.
+     * @return The number of misspelled words.
+     * @throws IOException If the file cannot be read or the output written.
+     */
+    public long check(Path input, Writer output) throws IOException {
+        BlockingQueue<Batch> tokenized = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        BlockingQueue<Batch> checked = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        BlockingQueue<Batch> suggested = new ArrayBlockingQueue<>(QUEUE_DEPTH);
+        ExecutorService stages = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> tokenizer = stages.submit(new Tokenizer(input, tokenized));
+            Future<?> checker = stages.submit(new Stage(tokenized, checked, false));
+            Future<?> suggester = stages.submit(new Stage(checked, suggested, true));
+            long misspelled = write(suggested, output);
+            if (misspelled < 0) {
+                // A stage failed, the ones before it may be blocked on a full
+                // queue and are interrupted so the failure can be reported.
+                stages.shutdownNow();
+            }
+            await(tokenizer, input);
+            await(checker, input);
+            await(suggester, input);
+            return misspelled;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while checking " + input, ex);
+        } finally {
+            // Interrupts any stage still blocked on a queue after a failure.
+            stages.shutdownNow();
+        }
+    }
+
+    /**
+     * Tells whether a character is part of a word, an ASCII letter or any
+     * other letter or combining mark. BatchCheck and EditorSession split text
+     * with this too, so all three find the same words.
+     *
+     * @param codePoint The character.
+     * @return true if the character belongs to a word.
+     */
+    static boolean isWordChar(int codePoint) {
+        if (codePoint < 0x80) {
+            return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z');
+        }
+        if (Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Waits for a stage to finish and rethrows what made it fail. A stage
+     * that was only interrupted because another one failed is not reported.
+     */
+    private static void await(Future<?> stage, Path input) throws IOException, InterruptedException {
+        try {
+            stage.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof InterruptedException) {
+                return;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Failed to check " + input, cause);
+        }
+    }
+
+    /**
+     * The last stage, run on the calling thread.
+     *
+     * @return The number of misspelled words, or -1 if a stage failed.
+     */
+    private long write(BlockingQueue<Batch> in, Writer output) throws IOException, InterruptedException {
+        Writer out = output instanceof BufferedWriter ? output : new BufferedWriter(output, 1 << 16);
+        long misspelled = 0;
+        StringBuilder line = new StringBuilder();
+        Batch batch;
+        while ((batch = in.take()) != Batch.END) {
+            if (batch.failed) {
+                // The stage that failed reports why when its future is checked.
+                out.flush();
+                return -1;
+            }
+            for (int i = 0; i < batch.count; i++) {
+                if (batch.valid[i]) {
+                    continue;
+                }
+                line.setLength(0);
+                line.append(batch.offsets[i]).append('\t').append(batch.words[i]).append('\t');
+                String[] fixes = batch.suggestions[i];
+                if (fixes != null) {
+                    for (int j = 0; j < fixes.length; j++) {
+                        if (j > 0) {
+                            line.append(' ');
+                        }
+                        line.append(fixes[j]);
+                    }
+                }
+                line.append('\n');
+                out.write(line.toString());
+                misspelled++;
+            }
+        }
+        out.flush();
+        return misspelled;
+    }
+
+    /**
+     * Words passed between the stages. Each stage fills in its own arrays.
+     */
+    private static class Batch {
+
+        // Marks the end of the stream.
+        static final Batch END = new Batch(0);
+
+        final long[] offsets;
+        final String[] words;
+        final boolean[] valid;
+        final String[][] suggestions;
+        int count;
+        // Set on the batch an upstream stage sends when it fails.
+        boolean failed;
+
+        Batch(int capacity) {
+            offsets = new long[capacity];
+            words = new String[capacity];
+            valid = new boolean[capacity];
+            suggestions = new String[capacity][];
+        }
+
+        static Batch failure() {
+            Batch batch = new Batch(0);
+            batch.failed = true;
+            return batch;
+        }
+
+    }
+
+    /**
+     * Checks the words of each batch, or finds suggestions for the misspelled
+     * ones, and passes the batch on.
+     */
+    private class Stage implements Runnable {
+
+        private final BlockingQueue<Batch> in;
+        private final BlockingQueue<Batch> out;
+        private final boolean suggest;
+
+        Stage(BlockingQueue<Batch> in, BlockingQueue<Batch> out, boolean suggest) {
+            this.in = in;
+            this.out = out;
+            this.suggest = suggest;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Batch batch;
+                while ((batch = in.take()) != Batch.END && !batch.failed) {
+                    for (int i = 0; i < batch.count; i++) {
+                        if (!suggest) {
+                            batch.valid[i] = spell.wordValid(batch.words[i]);
+                        } else if (!batch.valid[i]) {
+                            batch.suggestions[i] = spell.wordFix(batch.words[i]);
+                        }
+                    }
+                    out.put(batch);
+                }
+                out.put(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                try {
+                    out.put(Batch.failure());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                throw ex;
+            }
+        }
+
+    }
+
+    /**
+     * Maps the file a window at a time and splits it into words.
+     */
+    private static class Tokenizer implements Callable<Void> {
+
+        private final Path input;
+        private final BlockingQueue<Batch> out;
+        private Batch batch = new Batch(BATCH_SIZE);
+        private final byte[] scratch = new byte[MAX_WORD_BYTES];
+
+        Tokenizer(Path input, BlockingQueue<Batch> out) {
+            this.input = input;
+            this.out = out;
+        }
+
+        @Override
+        public Void call() throws IOException, InterruptedException {
+            try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long position = 0;
+                // Set while skipping a run of letters too long to be a word
+                // that carries over into the next window.
+                boolean skipping = false;
+                while (position < size) {
+                    int length = (int) Math.min(WINDOW, size - position);
+                    boolean last = position + length == size;
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                    int next = length;
+                    int i = 0;
+                    while (i < length) {
+                        int letter = letterBytes(buffer, i, length, last);
+                        if (letter == 0) {
+                            skipping = false;
+                            i++;
+                            continue;
+                        }
+                        int start = i;
+                        do {
+                            i += letter;
+                        } while (i < length && (letter = letterBytes(buffer, i, length, last)) > 0);
+                        if (i == length && !last && start > 0 && !skipping) {
+                            // The word may go on in the next window, which
+                            // is mapped from the start of the word.
+                            next = start;
+                            break;
+                        }
+                        boolean tooLong = skipping || i - start > MAX_WORD_BYTES;
+                        skipping = i == length && tooLong;
+                        if (!tooLong) {
+                            emit(position + start, buffer, start, i - start);
+                        }
+                    }
+                    position += next;
+                }
+                if (batch.count > 0) {
+                    out.put(batch);
+                }
+                out.put(Batch.END);
+                return null;
+            } catch (IOException | RuntimeException ex) {
+                out.put(Batch.failure());
+                throw ex;
+            }
+        }
+
+        private void emit(long offset, MappedByteBuffer buffer, int start, int length) throws InterruptedException {
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(start + i);
+                scratch[i] = b;
+                ascii &= b >= 0;
+            }
+            String word;
+            if (ascii) {
+                char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    byte b = scratch[i];
+                    chars[i] = (char) (b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b);
+                }
+                word = new String(chars);
+            } else {
+                word = new String(scratch, 0, length, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT);
+            }
+            batch.offsets[batch.count] = offset;
+            batch.words[batch.count] = word;
+            if (++batch.count == BATCH_SIZE) {
+                out.put(batch);
+                batch = new Batch(BATCH_SIZE);
+            }
+        }
+
+        /**
+         * Decodes the UTF-8 character at a position and tells whether it is
+         * part of a word.
+         *
+         * @param buffer The mapped window.
+         * @param i Position of the character.
+         * @param length Length of the window.
+         * @param last Whether the window ends the file.
+         * @return The number of bytes of the character if it is a letter or a
+         * combining mark, 0 if it is anything else or is not valid UTF-8. A
+         * character cut off by the end of a window that does not end the
+         * file takes the rest of the window, so the word it is in is read
+         * again from the next window.
+         */
+        private static int letterBytes(MappedByteBuffer buffer, int i, int length, boolean last) {
+            int b = buffer.get(i);
+            if (b >= 0) {
+                return isWordChar(b) ? 1 : 0;
+            }
+            b &= 0xff;
+            int count;
+            int codePoint;
+            if (b >= 0xc2 && b <= 0xdf) {
+                count = 2;
+                codePoint = b & 0x1f;
+            } else if (b >= 0xe0 && b <= 0xef) {
+                count = 3;
+                codePoint = b & 0x0f;
+            } else if (b >= 0xf0 && b <= 0xf4) {
+                count = 4;
+                codePoint = b & 0x07;
+            } else {
+                return 0;
+            }
+            if (i + count > length) {
+                return last ? 0 : length - i;
+            }
+            for (int k = 1; k < count; k++) {
+                int next = buffer.get(i + k);
+                if ((next & 0xc0) != 0x80) {
+                    return 0;
+                }
+                codePoint = codePoint << 6 | (next & 0x3f);
+            }
+            return isWordChar(codePoint) ? count : 0;
+        }
+
+    }
+
+}
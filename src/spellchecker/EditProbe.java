@@ -0,0 +1,291 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Arrays;
+
+/**
+ * Generates the single edit candidates of a word and probes the lexicon with
+ * them. Only characters of the dictionary's alphabet are inserted, and a
+ * candidate is skipped without a lookup if two of its neighbouring
+ * characters never appear next to each other in any dictionary word.
+ *
+ * Every edit is applied in place to a reused char buffer and its hash is put
+ * together from the cached hashes of the unchanged prefix and suffix, so
+ * candidates that miss never become Strings. Hits hand back the String that
+ * is already stored in the lexicon. The inserts and replaces at one position
+ * only differ in one character, so their hashes are worked out as a batch
+ * before any of them is probed.
+ *
+ * The buffers are reused between words, so one probe must only be used by one
+ * thread at a time.
+ *
+ * @author russell
+ */
+class EditProbe {
+
+    // The lexicon the candidates of the loaded word are looked up in, and the
+    // alphabet of its dictionary.
+    private Lexicon lex;
+    private Alphabet alphabet;
+    // The word being corrected and its length.
+    private char[] word = new char[0];
+    private int length;
+    // Scratch space the candidates are built in, one longer than the word.
+    private char[] buffer = new char[1];
+    // prefix[i] is the hash of the first i characters.
+    private int[] prefix = new int[1];
+    // suffix[i] is the hash of the characters from i to the end.
+    private int[] suffix = new int[2];
+    // pow[i] is 31 to the power of i.
+    private int[] pow = new int[]{1, 31};
+    // ids[i + 1] is the alphabet id of character i, ids[0] and ids[length +
+    // 1] are the edges of the word.
+    private int[] ids = new int[2];
+    // bad[i] is 1 if the characters before and at i never follow each other,
+    // counting the edges as characters, and badCount is the sum.
+    private int[] bad = new int[1];
+    private int badCount;
+    // Candidates probed and found by each generator for the loaded word,
+    // indexed by the rank of its edit.
+    private final int[] candidates = new int[4];
+    private final int[] hits = new int[4];
+    // The characters that fit at one position and the hashes of the
+    // candidates they make, as long as the alphabet.
+    private final CandidateHasher hasher;
+    private int[] batch = new int[0];
+    private int[] hashes = new int[0];
+
+    /**
+     * Creates a probe that hashes its batches of candidates with a hasher.
+     *
+     * @param hasher The hasher of the batches.
+     */
+    EditProbe(CandidateHasher hasher) {
+        this.hasher = hasher;
+    }
+
+    /**
+     * Loads a word into the probe, caching the hashes of all its prefixes and
+     * suffixes.
+     *
+     * @param lex The lexicon to look the candidates up in.
+     * @param alphabet The alphabet of the dictionary.
+     * @param text The misspelled word.
+     */
+    void load(Lexicon lex, Alphabet alphabet, String text) {
+        this.lex = lex;
+        this.alphabet = alphabet;
+        Arrays.fill(candidates, 0);
+        Arrays.fill(hits, 0);
+        length = text.length();
+        if (word.length < length) {
+            word = new char[length];
+            buffer = new char[length + 1];
+            prefix = new int[length + 1];
+            suffix = new int[length + 2];
+            pow = new int[length + 2];
+            ids = new int[length + 2];
+            bad = new int[length + 1];
+        }
+        if (batch.length < alphabet.size()) {
+            batch = new int[alphabet.size()];
+            hashes = new int[alphabet.size()];
+        }
+        text.getChars(0, length, word, 0);
+        pow[0] = 1;
+        for (int i = 1; i <= length + 1; i++) {
+            pow[i] = pow[i - 1] * 31;
+        }
+        prefix[0] = 0;
+        for (int i = 0; i < length; i++) {
+            prefix[i + 1] = 31 * prefix[i] + word[i];
+        }
+        suffix[length] = 0;
+        for (int i = length - 1; i >= 0; i--) {
+            suffix[i] = word[i] * pow[length - 1 - i] + suffix[i + 1];
+        }
+        ids[0] = alphabet.edge();
+        for (int i = 0; i < length; i++) {
+            ids[i + 1] = alphabet.id(word[i]);
+        }
+        ids[length + 1] = alphabet.edge();
+        badCount = 0;
+        for (int i = 0; i <= length; i++) {
+            bad[i] = alphabet.follows(ids[i], ids[i + 1]) ? 0 : 1;
+            badCount += bad[i];
+        }
+    }
+
+    /**
+     * Swaps the characters of the word with the characters beside it.
+     *
+     * @param corrections Hits are added here.
+     */
+    void adjacentSwap(Corrections corrections) {
+        System.arraycopy(word, 0, buffer, 0, length);
+        for (int i = 0; i < length - 1 && !corrections.stopped(); i++) {
+            // The swap replaces the pairs at i, i + 1 and i + 2.
+            if (badCount != bad[i] + bad[i + 1] + bad[i + 2] || !alphabet.follows(ids[i], ids[i + 2])
+                    || !alphabet.follows(ids[i + 2], ids[i + 1]) || !alphabet.follows(ids[i + 1], ids[i + 3])) {
+                continue;
+            }
+            char a = buffer[i];
+            char b = buffer[i + 1];
+            buffer[i] = b;
+            buffer[i + 1] = a;
+            int hash = prefix[i] * pow[length - i] + b * pow[length - i - 1]
+                    + a * pow[length - i - 2] + suffix[i + 2];
+            probe(length, hash, Corrections.SWAP, corrections);
+            buffer[i] = a;
+            buffer[i + 1] = b;
+        }
+    }
+
+    /**
+     * Removes a single character for the word and then checks the words
+     * validity. The buffer starts as the word without its first character and
+     * moving on to the next position only needs one character written back.
+     *
+     * @param corrections Hits are added here.
+     */
+    void deleteChar(Corrections corrections) {
+        if (length == 0) {
+            return;
+        }
+        System.arraycopy(word, 1, buffer, 0, length - 1);
+        for (int i = 0; i < length && !corrections.stopped(); i++) {
+            if (i > 0) {
+                buffer[i - 1] = word[i - 1];
+            }
+            // The delete replaces the pairs at i and i + 1 with one.
+            if (badCount != bad[i] + bad[i + 1] || !alphabet.follows(ids[i], ids[i + 2])) {
+                continue;
+            }
+            int hash = prefix[i] * pow[length - 1 - i] + suffix[i + 1];
+            probe(length - 1, hash, Corrections.DELETE, corrections);
+        }
+    }
+
+    /**
+     * Iterates through the alphabet inserting every letter at every position in
+     * the word, including in front of the first and after the last character.
+     * Only the letters that may follow the character before the position are
+     * tried.
+     *
+     * @param corrections Hits are added here.
+     */
+    void insertChar(Corrections corrections) {
+        System.arraycopy(word, 0, buffer, 1, length);
+        for (int i = 0; i <= length && !corrections.stopped(); i++) {
+            if (i > 0) {
+                buffer[i - 1] = word[i - 1];
+            }
+            // The insert replaces the pair at i with two.
+            if (badCount != bad[i]) {
+                continue;
+            }
+            int count = fitting(ids[i], ids[i + 1]);
+            hasher.hash(prefix[i] * pow[length - i + 1] + suffix[i], pow[length - i], batch, count, hashes);
+            for (int k = 0; k < count; k++) {
+                buffer[i] = (char) batch[k];
+                probe(length + 1, hashes[k], Corrections.INSERT, corrections);
+            }
+        }
+    }
+
+    /**
+     * Replaces each individual character in the word with all the letters one
+     * by one in the alphabet that fit between its neighbours. Then shifts to
+     * the next position after reseting the character.
+     *
+     * @param corrections Hits are added here.
+     */
+    void replaceChar(Corrections corrections) {
+        System.arraycopy(word, 0, buffer, 0, length);
+        for (int i = 0; i < length && !corrections.stopped(); i++) {
+            // The replace changes the pairs at i and i + 1.
+            if (badCount != bad[i] + bad[i + 1]) {
+                continue;
+            }
+            int count = fitting(ids[i], ids[i + 2]);
+            hasher.hash(prefix[i] * pow[length - i] + suffix[i + 1], pow[length - 1 - i], batch, count, hashes);
+            for (int k = 0; k < count; k++) {
+                buffer[i] = (char) batch[k];
+                probe(length, hashes[k], Corrections.REPLACE, corrections);
+            }
+            buffer[i] = word[i];
+        }
+    }
+
+    /**
+     *
+     * @param generator The rank of the edit the generator makes.
+     * @return Candidates the generator probed for the loaded word.
+     */
+    int candidates(int generator) {
+        return candidates[generator];
+    }
+
+    /**
+     *
+     * @param generator The rank of the edit the generator makes.
+     * @return Candidates of the generator found in the lexicon.
+     */
+    int hits(int generator) {
+        return hits[generator];
+    }
+
+    /**
+     * Collects the characters that may follow one character and precede
+     * another into the batch.
+     *
+     * @return The number of characters collected.
+     */
+    private int fitting(int before, int after) {
+        int count = 0;
+        for (int id : alphabet.after(before)) {
+            if (alphabet.follows(id, after)) {
+                batch[count++] = alphabet.charAt(id);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Looks up the start of the buffer in the lexicon.
+     */
+    private void probe(int candidateLength, int hash, int rank, Corrections corrections) {
+        if (!corrections.tick()) {
+            return;
+        }
+        candidates[rank]++;
+        String hit = lex.get(buffer, 0, candidateLength, hash);
+        if (hit != null) {
+            hits[rank]++;
+            corrections.add(hit, rank);
+        }
+    }
+
+}
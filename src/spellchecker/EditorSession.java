@@ -0,0 +1,402 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Keeps an editor buffer spell checked as it is edited. The session holds the
+ * text, the words found in it and the result of checking each of them. An
+ * edit only splits the words around it into words again and only checks the
+ * words that changed, so typing in a large document costs about the same as
+ * typing in a small one.
+ *
+ * The text and the words are both kept as gap buffers with the gap at the
+ * last edit. Words after the gap hold their offset from the end of the text,
+ * so an edit does not have to move them, and edits close to each other only
+ * move the gap a little.
+ *
+ * A word is a run of letters and combining marks, split the same way as by
+ * DocumentChecker and BatchCheck, and is lower cased before it is checked.
+ * Results are those of the dictionary at the time the word was checked,
+ * recheck checks every word again after the dictionary has changed. A
+ * session is meant for one editor buffer and is not safe to use from several
+ * threads at once.
+ *
+ * @author russell
+ */
+public class EditorSession {
+
+    // Runs of letters longer than this are not treated as words.
+    private static final int MAX_WORD_CHARS = 256;
+    private static final int MIN_CAPACITY = 16;
+
+    private final SpellChecker spell;
+    private final int layers;
+    // The text with a gap at gapStart, up to gapEnd.
+    private char[] text = new char[MIN_CAPACITY];
+    private int gapStart;
+    private int gapEnd = MIN_CAPACITY;
+    // The words in document order with a gap at tokenGapStart, up to
+    // tokenGapEnd.
+    private Token[] tokens = new Token[MIN_CAPACITY];
+    private int tokenGapStart;
+    private int tokenGapEnd = MIN_CAPACITY;
+
+    /**
+     * Starts a session on a document and checks all of it.
+     *
+     * @param spell The spell checker to check against.
+     * @param document The text of the document.
+     */
+    public EditorSession(SpellChecker spell, String document) {
+        this(spell, document, SpellChecker.ALL_LAYERS);
+    }
+
+    /**
+     * Starts a session on a document that checks against some layers of the
+     * dictionary only, and checks all of it.
+     *
+     * @param spell The spell checker to check against.
+     * @param document The text of the document.
+     * @param layers The layers to check against, from layerMask.
+     */
+    public EditorSession(SpellChecker spell, String document, int layers) {
+        this.spell = spell;
+        this.layers = layers;
+        edit(0, 0, document);
+    }
+
+    /**
+     * Replaces part of the text and checks the words the change touches.
+     *
+     * @param offset Position of the first character replaced.
+     * @param removedLength Number of characters replaced, 0 to only insert.
+     * @param inserted The text put in their place, empty to only remove.
+     * @return How the diagnostics changed.
+     */
+    public DiagnosticDiff edit(int offset, int removedLength, String inserted) {
+        if (offset < 0 || removedLength < 0 || offset > length() - removedLength) {
+            throw new IllegalArgumentException("edit of " + removedLength + " at " + offset
+                    + " is outside the text of length " + length());
+        }
+        if (inserted == null) {
+            throw new IllegalArgumentException("inserted text must not be null");
+        }
+        int oldLength = length();
+        // The words the edit can change start at or after the start of the
+        // run of letters it is in, which the edit leaves alone.
+        int start = offset;
+        while (start > 0 && isLetterAt(start - 1)) {
+            start--;
+        }
+        moveTokenGap(firstTokenFrom(start));
+        replace(offset, removedLength, inserted);
+        int delta = inserted.length() - removedLength;
+        int end = offset + inserted.length();
+        while (end < length() && isLetterAt(end)) {
+            end++;
+        }
+        // Words after the gap keep their offset from the end of the text, so
+        // the ones the edit touched are those now starting before the end.
+        List<Token> old = new ArrayList<>();
+        while (tokenGapEnd < tokens.length && tokens[tokenGapEnd].start + length() < end) {
+            Token token = tokens[tokenGapEnd++];
+            token.start += oldLength;
+            old.add(token);
+        }
+        List<Diagnostic> removed = new ArrayList<>();
+        List<Diagnostic> added = new ArrayList<>();
+        int next = 0;
+        int i = start;
+        while (i < end) {
+            if (!isLetterAt(i)) {
+                i++;
+                continue;
+            }
+            int wordStart = i;
+            while (i < end && isLetterAt(i)) {
+                i++;
+            }
+            if (i - wordStart > MAX_WORD_CHARS) {
+                continue;
+            }
+            String word = word(wordStart, i);
+            // Old words before this one are gone.
+            while (next < old.size() && moved(old.get(next).start, offset, removedLength, delta) < wordStart) {
+                drop(old.get(next++), removed);
+            }
+            Token token = null;
+            if (next < old.size()) {
+                Token candidate = old.get(next);
+                if (moved(candidate.start, offset, removedLength, delta) == wordStart
+                        && candidate.length == i - wordStart && candidate.result.getWord().equals(word)) {
+                    // The same word at the same place, so its result holds.
+                    candidate.start = wordStart;
+                    token = candidate;
+                    next++;
+                }
+            }
+            if (token == null) {
+                token = new Token(wordStart, i - wordStart, spell.check(word, layers));
+                if (!token.result.isValid()) {
+                    added.add(token.diagnostic(wordStart));
+                }
+            }
+            insertToken(token);
+        }
+        while (next < old.size()) {
+            drop(old.get(next++), removed);
+        }
+        return new DiagnosticDiff(removed, added);
+    }
+
+    /**
+     * Checks every word again, for after the dictionary has changed.
+     *
+     * @return How the diagnostics changed.
+     */
+    public DiagnosticDiff recheck() {
+        List<Diagnostic> removed = new ArrayList<>();
+        List<Diagnostic> added = new ArrayList<>();
+        int count = tokenCount();
+        for (int k = 0; k < count; k++) {
+            Token token = tokenAt(k);
+            int at = startOf(k);
+            CheckResult result = spell.check(token.result.getWord(), layers);
+            if (result.isValid() == token.result.isValid()
+                    && Arrays.equals(result.getSuggestions(), token.result.getSuggestions())) {
+                continue;
+            }
+            if (!token.result.isValid()) {
+                removed.add(token.diagnostic(at));
+            }
+            token.result = result;
+            if (!result.isValid()) {
+                added.add(token.diagnostic(at));
+            }
+        }
+        return new DiagnosticDiff(removed, added);
+    }
+
+    /**
+     *
+     * @return Every misspelled word of the document, in document order.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        List<Diagnostic> diagnostics = new ArrayList<>();
+        int count = tokenCount();
+        for (int k = 0; k < count; k++) {
+            Token token = tokenAt(k);
+            if (!token.result.isValid()) {
+                diagnostics.add(token.diagnostic(startOf(k)));
+            }
+        }
+        return diagnostics;
+    }
+
+    /**
+     *
+     * @return The text of the document.
+     */
+    public String getText() {
+        StringBuilder sb = new StringBuilder(length());
+        sb.append(text, 0, gapStart);
+        sb.append(text, gapEnd, text.length - gapEnd);
+        return sb.toString();
+    }
+
+    /**
+     *
+     * @return The number of characters of the document.
+     */
+    public int length() {
+        return text.length - (gapEnd - gapStart);
+    }
+
+    private char charAt(int i) {
+        return i < gapStart ? text[i] : text[i + gapEnd - gapStart];
+    }
+
+    /**
+     * Moves the gap of the text to an offset, removes characters after it and
+     * inserts the new ones in front of it.
+     */
+    private void replace(int offset, int removedLength, String inserted) {
+        if (offset < gapStart) {
+            int count = gapStart - offset;
+            System.arraycopy(text, offset, text, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (offset > gapStart) {
+            int count = offset - gapStart;
+            System.arraycopy(text, gapEnd, text, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+        gapEnd += removedLength;
+        int needed = inserted.length();
+        if (gapEnd - gapStart < needed) {
+            int after = text.length - gapEnd;
+            int capacity = Math.max(text.length * 2, length() + needed + MIN_CAPACITY);
+            char[] grown = new char[capacity];
+            System.arraycopy(text, 0, grown, 0, gapStart);
+            System.arraycopy(text, gapEnd, grown, capacity - after, after);
+            text = grown;
+            gapEnd = capacity - after;
+        }
+        inserted.getChars(0, needed, text, gapStart);
+        gapStart += needed;
+    }
+
+    private int tokenCount() {
+        return tokens.length - (tokenGapEnd - tokenGapStart);
+    }
+
+    private Token tokenAt(int k) {
+        return k < tokenGapStart ? tokens[k] : tokens[k + tokenGapEnd - tokenGapStart];
+    }
+
+    private int startOf(int k) {
+        return k < tokenGapStart ? tokens[k].start : tokens[k + tokenGapEnd - tokenGapStart].start + length();
+    }
+
+    /**
+     *
+     * @return The index of the first word starting at or after an offset.
+     */
+    private int firstTokenFrom(int offset) {
+        int low = 0;
+        int high = tokenCount();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startOf(mid) < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moves the gap of the words to an index, turning the offsets of the words
+     * that cross it from the start of the text to the end or back.
+     */
+    private void moveTokenGap(int k) {
+        int length = length();
+        while (tokenGapStart > k) {
+            Token token = tokens[--tokenGapStart];
+            tokens[tokenGapStart] = null;
+            token.start -= length;
+            tokens[--tokenGapEnd] = token;
+        }
+        while (tokenGapStart < k) {
+            Token token = tokens[tokenGapEnd];
+            tokens[tokenGapEnd++] = null;
+            token.start += length;
+            tokens[tokenGapStart++] = token;
+        }
+    }
+
+    private void insertToken(Token token) {
+        if (tokenGapStart == tokenGapEnd) {
+            int after = tokens.length - tokenGapEnd;
+            Token[] grown = new Token[tokens.length * 2];
+            System.arraycopy(tokens, 0, grown, 0, tokenGapStart);
+            System.arraycopy(tokens, tokenGapEnd, grown, grown.length - after, after);
+            tokens = grown;
+            tokenGapEnd = grown.length - after;
+        }
+        tokens[tokenGapStart++] = token;
+    }
+
+    private String word(int from, int to) {
+        StringBuilder sb = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            sb.append(charAt(i));
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Where an offset before an edit is after it, or -1 if the edit replaced
+     * the character there.
+     */
+    private static int moved(int start, int offset, int removedLength, int delta) {
+        if (start < offset) {
+            return start;
+        }
+        return start >= offset + removedLength ? start + delta : -1;
+    }
+
+    private static void drop(Token token, List<Diagnostic> removed) {
+        if (!token.result.isValid()) {
+            removed.add(token.diagnostic(token.start));
+        }
+    }
+
+    /**
+     * Tells whether the character at an offset is part of a word, by
+     * DocumentChecker.isWordChar. The two halves of a surrogate pair are
+     * classified together.
+     */
+    private boolean isLetterAt(int i) {
+        char c = charAt(i);
+        if (Character.isHighSurrogate(c) && i + 1 < length() && Character.isLowSurrogate(charAt(i + 1))) {
+            return DocumentChecker.isWordChar(Character.toCodePoint(c, charAt(i + 1)));
+        }
+        if (Character.isLowSurrogate(c) && i > 0 && Character.isHighSurrogate(charAt(i - 1))) {
+            return DocumentChecker.isWordChar(Character.toCodePoint(charAt(i - 1), c));
+        }
+        return DocumentChecker.isWordChar(c);
+    }
+
+    /**
+     * A word of the document and the result of checking it.
+     */
+    private static final class Token {
+
+        // Offset from the start of the text before the gap, from the end of
+        // the text after it.
+        int start;
+        final int length;
+        CheckResult result;
+
+        Token(int start, int length, CheckResult result) {
+            this.start = start;
+            this.length = length;
+            this.result = result;
+        }
+
+        Diagnostic diagnostic(int at) {
+            return new Diagnostic(at, length, result);
+        }
+
+    }
+
+}
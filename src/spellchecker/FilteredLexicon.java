@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts a Bloom filter in front of another lexicon. Most edit candidates are
+ * not words, and the filter turns those away after touching one cache line,
+ * without the table probe and string comparison of the lexicon behind it.
+ *
+ * Counts how many lookups the filter rejected, how many it let through and
+ * how many of those the lexicon did not have after all, so the false positive
+ * rate can be tuned against real traffic.
+ *
+ * @author russell
+ */
+class FilteredLexicon implements Lexicon {
+
+    private final Lexicon lex;
+    private final BloomFilter filter;
+    private final double falsePositiveRate;
+    private final LongAdder rejected;
+    private final LongAdder passed;
+    private final LongAdder falsePositives;
+
+    /**
+     * Builds the filter for the words of the lexicon.
+     *
+     * @param lex The lexicon lookups are passed on to.
+     * @param words The words in the lexicon.
+     * @param falsePositiveRate Wanted share of absent words let through.
+     */
+    FilteredLexicon(Lexicon lex, List<String> words, double falsePositiveRate) {
+        this.lex = lex;
+        this.falsePositiveRate = falsePositiveRate;
+        filter = new BloomFilter(words.size(), falsePositiveRate);
+        for (String word : words) {
+            filter.add(word.hashCode());
+        }
+        rejected = new LongAdder();
+        passed = new LongAdder();
+        falsePositives = new LongAdder();
+    }
+
+    /**
+     * Shares the filter and the counters of another filtered lexicon.
+     */
+    private FilteredLexicon(Lexicon lex, FilteredLexicon shared) {
+        this.lex = lex;
+        filter = shared.filter;
+        falsePositiveRate = shared.falsePositiveRate;
+        rejected = shared.rejected;
+        passed = shared.passed;
+        falsePositives = shared.falsePositives;
+    }
+
+    /**
+     * Puts the same filter in front of a lexicon that holds some of the words
+     * of this one, such as a view of some layers. The filter never turns
+     * away a word it was built with, so it is still right for fewer words,
+     * and the lookups count towards the same stats.
+     *
+     * @param subset A lexicon of some of the words of this one.
+     * @return The filtered lexicon.
+     */
+    FilteredLexicon over(Lexicon subset) {
+        return new FilteredLexicon(subset, this);
+    }
+
+    @Override
+    public String get(String word) {
+        if (!admit(word.hashCode())) {
+            return null;
+        }
+        return count(lex.get(word));
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        if (!admit(hash)) {
+            return null;
+        }
+        return count(lex.get(chars, offset, length, hash));
+    }
+
+    @Override
+    public int size() {
+        return lex.size();
+    }
+
+    /**
+     *
+     * @return The configuration of the filter and its counters so far.
+     */
+    BloomFilterStats stats() {
+        return new BloomFilterStats(filter.sizeInBits(), filter.hashes(), falsePositiveRate,
+                rejected.sum(), passed.sum(), falsePositives.sum());
+    }
+
+    private boolean admit(int hash) {
+        if (filter.mightContain(hash)) {
+            passed.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private String count(String found) {
+        if (found == null) {
+            falsePositives.increment();
+        }
+        return found;
+    }
+
+}
@@ -0,0 +1,449 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lexicon kept as sorted words front coded in blocks of one byte array. The
+ * first word of a block is stored whole, every other word as the number of
+ * characters it shares with the word before it and the characters after
+ * those, which are preceded by the number of bytes they take so a word can
+ * be skipped without reading them. Numbers and characters are written as
+ * variable length integers, so a plain ASCII character takes one byte.
+ *
+ * A lookup binary searches the first words of the blocks and then scans one
+ * block. The binary search only covers the blocks whose first word starts
+ * with the same few characters as the word looked up, which a small table
+ * indexed by those characters points at, and compares the first characters
+ * of the blocks packed in a long before it reads any bytes. The scan never
+ * rebuilds the words: it only tracks how many leading characters the current
+ * word has in common with the word looked up, which together with the shared
+ * prefix of the next word tells whether that word sorts before it, after it
+ * or has to be compared.
+ *
+ * Words take a few bytes each instead of a String and a table slot, at the
+ * price of a slower lookup. No String is made unless a lookup by characters
+ * hits.
+ *
+ * @author russell
+ */
+class FrontCodedLexicon implements Lexicon {
+
+    // Words per block, the first of which is stored whole.
+    private static final int BLOCK_SIZE = 16;
+    // Most characters of a prefix the block index is keyed by.
+    private static final int MAX_PREFIX = 3;
+    // Marks a character of the digit table no word starts with.
+    private static final int ABSENT = 1 << 30;
+    // Smallest number of slots the block index may use.
+    private static final int MIN_INDEX = 1024;
+
+    private final byte[] data;
+    // Position in data of the first word of each block.
+    private final int[] blocks;
+    // The first four characters of the first word of each block.
+    private final long[] heads;
+    // The characters the words start with in order, digit i + 1 of a prefix.
+    private final char[] leading;
+    // The digit of every character up to the largest leading one, with
+    // ABSENT set for the ones no word starts with.
+    private final int[] digits;
+    // Characters of a prefix the index is keyed by.
+    private final int prefixLength;
+    // The first block whose first word has a prefix key at least the index.
+    private final int[] index;
+    private final int size;
+
+    /**
+     * Sorts the words and writes them into blocks.
+     *
+     * @param list The dictionary words.
+     */
+    FrontCodedLexicon(List<String> list) {
+        String[] sorted = list.toArray(new String[list.size()]);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        size = distinct;
+        blocks = new int[(distinct + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        heads = new long[blocks.length];
+        Output out = new Output(distinct * 4);
+        for (int i = 0; i < distinct; i++) {
+            String word = sorted[i];
+            int shared = 0;
+            if (i % BLOCK_SIZE == 0) {
+                blocks[i / BLOCK_SIZE] = out.length;
+                heads[i / BLOCK_SIZE] = head(word, null, 0, word.length());
+            } else {
+                String previous = sorted[i - 1];
+                int limit = Math.min(previous.length(), word.length());
+                while (shared < limit && previous.charAt(shared) == word.charAt(shared)) {
+                    shared++;
+                }
+                out.write(shared);
+            }
+            int bytes = 0;
+            for (int j = shared; j < word.length(); j++) {
+                bytes += Output.size(word.charAt(j));
+            }
+            out.write(bytes);
+            for (int j = shared; j < word.length(); j++) {
+                out.write(word.charAt(j));
+            }
+        }
+        data = Arrays.copyOf(out.bytes, out.length);
+
+        StringBuilder starts = new StringBuilder();
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        for (int i = 0; i < distinct; i++) {
+            for (int j = 0; j < Math.min(MAX_PREFIX, sorted[i].length()); j++) {
+                char c = sorted[i].charAt(j);
+                if (!seen[c]) {
+                    seen[c] = true;
+                    starts.append(c);
+                }
+            }
+        }
+        leading = starts.toString().toCharArray();
+        Arrays.sort(leading);
+        digits = new int[leading.length == 0 ? 0 : leading[leading.length - 1] + 1];
+        for (int c = 0, at = 0; c < digits.length; c++) {
+            if (leading[at] == c) {
+                digits[c] = ++at;
+            } else {
+                digits[c] = at | ABSENT;
+            }
+        }
+        // As many characters as fit a table of about two slots per block.
+        int base = leading.length + 1;
+        long limit = Math.max(MIN_INDEX, 2L * blocks.length);
+        int k = 1;
+        long slots = base;
+        while (k < MAX_PREFIX && slots * base <= limit) {
+            slots *= base;
+            k++;
+        }
+        prefixLength = k;
+        index = new int[(int) slots + 1];
+        int block = 0;
+        for (int key = 0; key <= slots; key++) {
+            while (block < blocks.length && key(sorted[block * BLOCK_SIZE], null, 0,
+                    sorted[block * BLOCK_SIZE].length()) < key) {
+                block++;
+            }
+            index[key] = block;
+        }
+    }
+
+    @Override
+    public String get(String word) {
+        return contains(word, null, 0, word.length()) ? word : null;
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        return contains(null, chars, offset, length) ? new String(chars, offset, length) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @return The words of the lexicon in sorted order.
+     */
+    List<String> words() {
+        List<String> words = new ArrayList<>(size);
+        StringBuilder word = new StringBuilder();
+        int at = 0;
+        for (int i = 0; i < size; i++) {
+            int shared = 0;
+            if (i % BLOCK_SIZE != 0) {
+                shared = (int) read(at);
+                at = next(at);
+            }
+            int end = (int) read(at);
+            at = next(at);
+            end += at;
+            word.setLength(shared);
+            while (at < end) {
+                word.append((char) read(at));
+                at = next(at);
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     *
+     * @return The bytes the lexicon takes per word, the block index included.
+     */
+    double bytesPerWord() {
+        double bytes = data.length + blocks.length * 12.0 + index.length * 4.0 + leading.length * 2.0
+                + digits.length * 4.0;
+        return size == 0 ? 0 : bytes / size;
+    }
+
+    /**
+     * Looks up a word given either as a String or as a range of characters.
+     */
+    private boolean contains(String word, char[] chars, int offset, int length) {
+        // The last block whose first word is not after the word. Blocks with
+        // a smaller key are before it and blocks with a larger one after it.
+        int key = key(word, chars, offset, length);
+        int low = index[key];
+        int high = index[key + 1] - 1;
+        int block = low - 1;
+        long head = head(word, chars, offset, length);
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = Long.compareUnsigned(heads[mid], head);
+            if (order == 0) {
+                order = compareFirst(blocks[mid], word, chars, offset, length);
+            }
+            if (order == 0) {
+                return true;
+            }
+            if (order < 0) {
+                block = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (block < 0) {
+            return false;
+        }
+        int at = blocks[block];
+        // Characters the current word has in common with the word, which is
+        // known to sort after the current word.
+        int matched = 0;
+        int count = Math.min(size - block * BLOCK_SIZE, BLOCK_SIZE);
+        for (int i = 0; i < count; i++) {
+            int shared = 0;
+            if (i > 0) {
+                shared = data[at];
+                if (shared >= 0) {
+                    at++;
+                } else {
+                    shared = (int) read(at);
+                    at = next(at);
+                }
+            }
+            int end = data[at];
+            if (end >= 0) {
+                at++;
+            } else {
+                end = (int) read(at);
+                at = next(at);
+            }
+            end += at;
+            if (shared < matched) {
+                // Differs from the word before where that one matched, by a
+                // larger character, so it and every word after are too large.
+                return false;
+            }
+            if (shared > matched) {
+                // Agrees with the word before past where that one matched,
+                // so it is as small.
+                at = end;
+                continue;
+            }
+            while (at < end && matched < length) {
+                int c = data[at];
+                if (c >= 0) {
+                    at++;
+                } else {
+                    c = (int) read(at);
+                    at = next(at);
+                }
+                char d = word != null ? word.charAt(matched) : chars[offset + matched];
+                if (c != d) {
+                    if (c > d) {
+                        return false;
+                    }
+                    break;
+                }
+                matched++;
+            }
+            if (at == end && matched == length) {
+                return true;
+            }
+            if (at < end && matched == length) {
+                // Goes on past the end of the word, so sorts after it.
+                return false;
+            }
+            at = end;
+        }
+        return false;
+    }
+
+    /**
+     * The key of the first characters of a word, which orders words the way
+     * they sort wherever the keys differ. Each character is a digit: 0 past
+     * the end of the word, i + 1 for leading[i]. A character that no word
+     * starts with sorts between two digits, so it takes the lower one and
+     * every digit after it is the largest.
+     */
+    private int key(String word, char[] chars, int offset, int length) {
+        int base = leading.length + 1;
+        int key = 0;
+        boolean past = false;
+        for (int i = 0; i < prefixLength; i++) {
+            int digit;
+            if (past) {
+                digit = base - 1;
+            } else if (i >= length) {
+                digit = 0;
+            } else {
+                char c = word != null ? word.charAt(i) : chars[offset + i];
+                digit = c < digits.length ? digits[c] : leading.length | ABSENT;
+                if ((digit & ABSENT) != 0) {
+                    digit &= ~ABSENT;
+                    past = true;
+                }
+            }
+            key = key * base + digit;
+        }
+        return key;
+    }
+
+    /**
+     * Packs the first four characters of a word into a long, padded with
+     * zeros, so the longs compare unsigned the way the words do unless they
+     * are equal.
+     */
+    private static long head(String word, char[] chars, int offset, int length) {
+        long packed = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = i >= length ? 0 : word != null ? word.charAt(i) : chars[offset + i];
+            packed = packed << 16 | c;
+        }
+        return packed;
+    }
+
+    /**
+     * Compares the first word of a block with the word looked up.
+     */
+    private int compareFirst(int at, String word, char[] chars, int offset, int length) {
+        int end = (int) read(at);
+        at = next(at);
+        end += at;
+        int i = 0;
+        for (; at < end && i < length; i++) {
+            int c = data[at];
+            if (c >= 0) {
+                at++;
+            } else {
+                c = (int) read(at);
+                at = next(at);
+            }
+            char d = word != null ? word.charAt(i) : chars[offset + i];
+            if (c != d) {
+                return c < d ? -1 : 1;
+            }
+        }
+        // The longer of two words that agree as far as the shorter goes sorts
+        // after it.
+        if (at < end) {
+            return 1;
+        }
+        return i < length ? -1 : 0;
+    }
+
+    /**
+     * Reads the variable length integer at a position.
+     */
+    private long read(int at) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[at++];
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     *
+     * @return The position after the variable length integer at a position.
+     */
+    private int next(int at) {
+        while (data[at++] < 0) {
+            // Continuation bytes have the high bit set.
+        }
+        return at;
+    }
+
+    /**
+     * Growable byte buffer the blocks are written to.
+     */
+    private static final class Output {
+
+        byte[] bytes;
+        int length;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(16, capacity)];
+        }
+
+        void write(int value) {
+            if (length + 5 > bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            while ((value & ~0x7f) != 0) {
+                bytes[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        /**
+         *
+         * @return The bytes a value takes once written.
+         */
+        static int size(int value) {
+            int bytes = 1;
+            while ((value & ~0x7f) != 0) {
+                value >>>= 7;
+                bytes++;
+            }
+            return bytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.List;
+
+/**
+ * Lexicon stored in a MyHashSet. This is the default lexicon.
+ *
+ * @author russell
+ */
+class HashLexicon implements Lexicon {
+
+    private final MyHashSet<String> set;
+    // Counted on first use, since the table never changes once it is built.
+    private volatile long[] probeLengths;
+
+    /**
+     * Adds all the words to a hash set sized for them, filling ranges of the
+     * table in parallel for a large dictionary.
+     *
+     * @param words The dictionary words.
+     */
+    HashLexicon(List<String> words) {
+        set = MyHashSet.of(words);
+    }
+
+    @Override
+    public String get(String word) {
+        return set.get(word);
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        return set.get(chars, offset, length, hash);
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    /**
+     *
+     * @return The words of the lexicon, in no particular order.
+     */
+    List<String> words() {
+        return set.toList();
+    }
+
+    /**
+     *
+     * @return The share of the hash table slots in use.
+     */
+    double loadFactor() {
+        return (double) set.size() / set.capacity();
+    }
+
+    /**
+     * Counts the probes every word takes. Only the first call walks the
+     * table.
+     *
+     * @return Element i is the number of words found with i + 1 probes.
+     */
+    long[] probeLengths() {
+        long[] lengths = probeLengths;
+        if (lengths == null) {
+            lengths = set.probeLengths();
+            probeLengths = lengths;
+        }
+        return lengths.clone();
+    }
+
+}
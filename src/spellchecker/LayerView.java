@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The words of some layers of a layered lexicon. A view is only a mask and is
+ * made for every check that enables its own layers.
+ *
+ * @author russell
+ */
+class LayerView implements Lexicon {
+
+    private final LayeredLexicon layered;
+    private final int layers;
+
+    /**
+     *
+     * @param layered The lexicon of all layers.
+     * @param layers The layers to look in as a bit mask.
+     */
+    LayerView(LayeredLexicon layered, int layers) {
+        this.layered = layered;
+        this.layers = layers;
+    }
+
+    @Override
+    public String get(String word) {
+        return layered.get(word, layers);
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        return layered.get(chars, offset, length, hash, layers);
+    }
+
+    @Override
+    public int size() {
+        return layered.size(layers);
+    }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lexicon made of several dictionaries, a base language dictionary and word
+ * lists for domains or tenants. Every word is stored once with a bit mask of
+ * the layers it is in, so a single probe tells which layers a word is valid
+ * in and a check can enable any combination of layers without anything
+ * being rebuilt. The words of the base layer are shared by every combination.
+ *
+ * The words sit in an open addressing table with linear probing like the
+ * MyHashSet, with the masks in an array next to the hash codes. As a lexicon
+ * of its own it holds the words of all layers; a LayerView holds those of
+ * some layers.
+ *
+ * @author russell
+ */
+class LayeredLexicon implements Lexicon {
+
+    /**
+     * The most layers a lexicon can have, one bit of the mask each.
+     */
+    static final int MAX_LAYERS = 31;
+
+    private static final float LOAD_FACTOR = .75f;
+
+    private final String[] keys;
+    private final int[] hashes;
+    private final int[] masks;
+    private final int mask;
+    private final int size;
+    // The distinct layer masks and how many words have each, to tell the
+    // number of words in a combination of layers without a walk.
+    private final int[] maskValues;
+    private final int[] maskCounts;
+
+    /**
+     * Puts the words of every layer into one table.
+     *
+     * @param layers The words of each layer, the first is the base layer.
+     */
+    LayeredLexicon(List<List<String>> layers) {
+        if (layers.size() > MAX_LAYERS) {
+            throw new IllegalArgumentException("at most " + MAX_LAYERS + " layers: " + layers.size());
+        }
+        int total = 0;
+        for (List<String> layer : layers) {
+            total += layer.size();
+        }
+        int capacity = 16;
+        while (capacity < total / LOAD_FACTOR && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        masks = new int[capacity];
+        mask = capacity - 1;
+        int count = 0;
+        for (int layer = 0; layer < layers.size(); layer++) {
+            for (String word : layers.get(layer)) {
+                int hash = word.hashCode();
+                int i = spread(hash) & mask;
+                while (keys[i] != null && !(hashes[i] == hash && word.equals(keys[i]))) {
+                    i = (i + 1) & mask;
+                }
+                if (keys[i] == null) {
+                    keys[i] = word;
+                    hashes[i] = hash;
+                    count++;
+                }
+                masks[i] |= 1 << layer;
+            }
+        }
+        size = count;
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int i = 0; i < capacity; i++) {
+            if (keys[i] != null) {
+                Integer seen = counts.get(masks[i]);
+                counts.put(masks[i], seen == null ? 1 : seen + 1);
+            }
+        }
+        maskValues = new int[counts.size()];
+        maskCounts = new int[counts.size()];
+        int at = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            maskValues[at] = entry.getKey();
+            maskCounts[at] = entry.getValue();
+            at++;
+        }
+    }
+
+    /**
+     *
+     * @return The layers a word is in as a bit mask, 0 if it is in none.
+     */
+    int layers(String word) {
+        int hash = word.hashCode();
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && word.equals(keys[i])) {
+                return masks[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Looks up a word in some of the layers.
+     *
+     * @param layers The layers to look in as a bit mask.
+     * @return The stored word, or null if it is not in any of the layers.
+     */
+    String get(String word, int layers) {
+        int hash = word.hashCode();
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && word.equals(keys[i])) {
+                return (masks[i] & layers) != 0 ? keys[i] : null;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a word in some of the layers.
+     *
+     * @param layers The layers to look in as a bit mask.
+     * @return The stored word, or null if it is not in any of the layers.
+     */
+    String get(char[] chars, int offset, int length, int hash, int layers) {
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && contentEquals(keys[i], chars, offset, length)) {
+                return (masks[i] & layers) != 0 ? keys[i] : null;
+            }
+            i = (i + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     *
+     * @param layers The layers as a bit mask.
+     * @return The number of words in any of the layers.
+     */
+    int size(int layers) {
+        int count = 0;
+        for (int i = 0; i < maskValues.length; i++) {
+            if ((maskValues[i] & layers) != 0) {
+                count += maskCounts[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     *
+     * @return The words of all layers, each once.
+     */
+    List<String> words() {
+        return words(-1);
+    }
+
+    /**
+     *
+     * @param layers The layers as a bit mask.
+     * @return The words in any of the layers, each once.
+     */
+    List<String> words(int layers) {
+        List<String> words = new ArrayList<>(size(layers));
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null && (masks[i] & layers) != 0) {
+                words.add(keys[i]);
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public String get(String word) {
+        return get(word, -1);
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        return get(chars, offset, length, hash, -1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String key, char[] chars, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic automaton that accepts every word within a maximum distance of
+ * one given word, counting the same edits the EditProbe makes. A state holds
+ * the last two rows of the distance table, with every value above the maximum
+ * clipped, plus the last character read, which is all a swap needs.
+ *
+ * Characters that do not occur in the word all move the automaton the same
+ * way, so transitions are kept per character of the word plus one class for
+ * every other character. The automaton is built lazily: a state and its
+ * transitions are only worked out the first time a walk reaches them, and
+ * from then on a step is one array lookup regardless of alphabet size.
+ *
+ * An automaton belongs to one query and is not safe to share between threads.
+ *
+ * @author russell
+ */
+class LevenshteinAutomaton {
+
+    /**
+     * Largest distance an automaton is built for. The number of states grows
+     * quickly past it.
+     */
+    static final int MAX_DISTANCE = 3;
+
+    private static final int UNKNOWN = -2;
+    private static final int DEAD = -1;
+
+    private final int max;
+    // Distinct characters of the word, sorted. Their index is their class.
+    private final char[] classChars;
+    // Class of every character of the word.
+    private final int[] wordClasses;
+    // Class shared by every character that is not in the word.
+    private final int other;
+    private final int n;
+    // Rows and last class of every state, in state order.
+    private final List<int[]> states = new ArrayList<>();
+    private final Map<String, Integer> stateIds = new HashMap<>();
+    // transitions.get(state)[class] is the next state, DEAD or UNKNOWN.
+    private final List<int[]> transitions = new ArrayList<>();
+
+    /**
+     * Compiles a word into an automaton. Only the start state is built here.
+     *
+     * @param word The misspelled word.
+     * @param max Largest distance of an accepted word, from 1 to MAX_DISTANCE.
+     */
+    LevenshteinAutomaton(String word, int max) {
+        if (max < 1 || max > MAX_DISTANCE) {
+            throw new IllegalArgumentException("distance must be between 1 and " + MAX_DISTANCE + ": " + max);
+        }
+        this.max = max;
+        this.n = word.length();
+        char[] sorted = word.toCharArray();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        classChars = Arrays.copyOf(sorted, distinct);
+        other = distinct;
+        wordClasses = new int[n];
+        for (int j = 0; j < n; j++) {
+            wordClasses[j] = Arrays.binarySearch(classChars, word.charAt(j));
+        }
+        // Before anything is read there is no earlier row and no last
+        // character, which the clipped row and the other class stand in for.
+        int[] start = new int[2 * (n + 1) + 1];
+        for (int j = 0; j <= n; j++) {
+            start[j] = max + 1;
+            start[n + 1 + j] = Math.min(j, max + 1);
+        }
+        start[2 * (n + 1)] = other;
+        state(start);
+    }
+
+    /**
+     * @return The state before any character is read.
+     */
+    int start() {
+        return 0;
+    }
+
+    /**
+     * Moves the automaton on by one character.
+     *
+     * @param state The current state.
+     * @param c The character read.
+     * @return The next state, or -1 if no word starting this way can be within
+     * the maximum distance.
+     */
+    int step(int state, char c) {
+        int pos = Arrays.binarySearch(classChars, c);
+        int cls = pos >= 0 ? pos : other;
+        int[] row = transitions.get(state);
+        int next = row[cls];
+        if (next == UNKNOWN) {
+            next = computeStep(state, cls);
+            row[cls] = next;
+        }
+        return next;
+    }
+
+    /**
+     * @param state A state reached by reading a whole word.
+     * @return true if that word is within the maximum distance.
+     */
+    boolean accepts(int state) {
+        return distance(state) <= max;
+    }
+
+    /**
+     * @param state A state reached by reading a whole word.
+     * @return The distance of that word, or more than the maximum if it is
+     * further away.
+     */
+    int distance(int state) {
+        return states.get(state)[2 * n + 1];
+    }
+
+    private int computeStep(int state, int cls) {
+        int[] from = states.get(state);
+        int lastClass = from[2 * (n + 1)];
+        int[] to = new int[from.length];
+        // The current row of this state is the earlier row of the next one.
+        System.arraycopy(from, n + 1, to, 0, n + 1);
+        int clip = max + 1;
+        int rowMin = Math.min(from[n + 1] + 1, clip);
+        to[n + 1] = rowMin;
+        for (int j = 1; j <= n; j++) {
+            int cost = wordClasses[j - 1] == cls ? 0 : 1;
+            int d = Math.min(Math.min(from[n + 1 + j] + 1, to[n + j] + 1), from[n + j] + cost);
+            if (j > 1 && cls != other && wordClasses[j - 1] == lastClass && wordClasses[j - 2] == cls) {
+                d = Math.min(d, from[j - 2] + 1);
+            }
+            d = Math.min(d, clip);
+            to[n + 1 + j] = d;
+            rowMin = Math.min(rowMin, d);
+        }
+        if (rowMin > max) {
+            return DEAD;
+        }
+        to[2 * (n + 1)] = cls;
+        return state(to);
+    }
+
+    /**
+     * Looks up the id of a state, adding it if it is new.
+     */
+    private int state(int[] values) {
+        char[] key = new char[values.length];
+        for (int i = 0; i < values.length; i++) {
+            key[i] = (char) values[i];
+        }
+        String signature = new String(key);
+        Integer id = stateIds.get(signature);
+        if (id == null) {
+            id = states.size();
+            states.add(values);
+            stateIds.put(signature, id);
+            int[] row = new int[other + 1];
+            Arrays.fill(row, UNKNOWN);
+            transitions.add(row);
+        }
+        return id;
+    }
+
+}
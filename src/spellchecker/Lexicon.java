@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The set of correctly spelled words the spell checker checks against. Words
+ * can be looked up either as a String or as a range of characters, so the
+ * edit candidates of a misspelled word can be probed without first turning
+ * each one into a String.
+ *
+ * @author russell
+ */
+interface Lexicon {
+
+    /**
+     * Looks up a word.
+     *
+     * @param word The word to look up.
+     * @return The word as stored in the lexicon, or null if it is not in it.
+     */
+    String get(String word);
+
+    /**
+     * Looks up a word held in a range of characters.
+     *
+     * @param chars Buffer holding the characters.
+     * @param offset Position of the first character.
+     * @param length Number of characters.
+     * @param hash The value String.hashCode returns for the same characters.
+     * @return The word as a String, or null if it is not in the lexicon.
+     */
+    String get(char[] chars, int offset, int length, int hash);
+
+    /**
+     *
+     * @return The number of words in the lexicon.
+     */
+    int size();
+
+}
@@ -0,0 +1,289 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lexicon compiled ahead of time into a binary file that is memory mapped and
+ * used as it is, so loading it costs no parsing and no object per word.
+ *
+ * The file holds an open addressing hash table laid out the same way as
+ * MyHashSet, followed by the words. All values are little endian.
+ *
+ * <pre>
+ * header   int magic, int version, int word count, int table slots,
+ *          int data bytes
+ * table    per slot: int hash, int offset of the word in data or -1
+ * data     per word: int length, then the UTF-16 characters
+ * alphabet the characters of the words and the pairs of them that follow
+ *          each other, as written by Alphabet.writeTo
+ * </pre>
+ *
+ * The alphabet is stored so the edit probe can prune candidates without
+ * decoding every word when the snapshot is loaded.
+ *
+ * Reads only use absolute positions in the mapped buffer, so a snapshot can
+ * be shared by any number of threads.
+ *
+ * @author russell
+ */
+class LexiconSnapshot implements Lexicon {
+
+    private static final int MAGIC = 0x53504c58;
+    static final int VERSION = 2;
+    private static final int HEADER_BYTES = 20;
+    private static final int EMPTY = -1;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int mask;
+    // Position of the data in the buffer.
+    private final int dataStart;
+    private final Alphabet alphabet;
+
+    private LexiconSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a lexicon snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported lexicon snapshot version " + version + ", expected " + VERSION);
+        }
+        size = buffer.getInt(8);
+        int slots = buffer.getInt(12);
+        int dataBytes = buffer.getInt(16);
+        mask = slots - 1;
+        dataStart = HEADER_BYTES + slots * 8;
+        if (Integer.bitCount(slots) != 1 || (long) dataStart + dataBytes > buffer.capacity()) {
+            throw new IOException("Corrupt lexicon snapshot");
+        }
+        ByteBuffer rest = this.buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        rest.position(dataStart + dataBytes);
+        alphabet = Alphabet.readFrom(rest);
+        if (alphabet == null || rest.hasRemaining()) {
+            throw new IOException("Corrupt lexicon snapshot");
+        }
+    }
+
+    /**
+     * Maps a snapshot file. The mapping stays valid after this returns.
+     *
+     * @param path The snapshot file.
+     * @return The lexicon, ready to use.
+     * @throws IOException If the file cannot be read or is not a snapshot of
+     * this version.
+     */
+    static LexiconSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new LexiconSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Compiles words into a snapshot file. Duplicate words are stored once.
+     *
+     * @param words The dictionary words.
+     * @param path The snapshot file, replaced if it exists. The snapshot is
+     * written next to it under a temporary name and then moved into place, so
+     * checkers that have the old file mapped keep reading it unchanged.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(List<String> words, Path path) throws IOException {
+        MyHashSet<String> unique = new MyHashSet<>(words.size());
+        List<String> ordered = new ArrayList<>(words.size());
+        long dataBytes = 0;
+        for (String word : words) {
+            if (unique.add(word)) {
+                ordered.add(word);
+                dataBytes += 4 + 2L * word.length();
+            }
+        }
+        int slots = 16;
+        while (slots * .75 < ordered.size()) {
+            slots <<= 1;
+        }
+        Alphabet alphabet = new Alphabet(ordered);
+        long total = HEADER_BYTES + slots * 8L + dataBytes + alphabet.bytes();
+        if (total > Integer.MAX_VALUE) {
+            throw new IOException("Dictionary too large for a snapshot");
+        }
+        ByteBuffer out = ByteBuffer.allocate((int) total).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(ordered.size()).putInt(slots).putInt((int) dataBytes);
+        for (int i = 0; i < slots; i++) {
+            out.putInt(HEADER_BYTES + i * 8 + 4, EMPTY);
+        }
+        int dataStart = HEADER_BYTES + slots * 8;
+        int offset = 0;
+        for (String word : ordered) {
+            int hash = word.hashCode();
+            int slot = spread(hash) & (slots - 1);
+            while (out.getInt(HEADER_BYTES + slot * 8 + 4) != EMPTY) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            out.putInt(HEADER_BYTES + slot * 8, hash);
+            out.putInt(HEADER_BYTES + slot * 8 + 4, offset);
+            int at = dataStart + offset;
+            out.putInt(at, word.length());
+            for (int i = 0; i < word.length(); i++) {
+                out.putChar(at + 4 + i * 2, word.charAt(i));
+            }
+            offset += 4 + word.length() * 2;
+        }
+        out.position(dataStart + (int) dataBytes);
+        alphabet.writeTo(out);
+        out.position(0);
+        // Other checkers may have the old file mapped, so it is replaced by a
+        // rename rather than overwritten.
+        Path target = path.toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.WRITE)) {
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Compiles a dictionary file into a snapshot. The file is read the same
+     * way the spell checker reads it, so lines of the form "word count" hold
+     * the word; the counts are not kept in the snapshot.
+     *
+     * @param args The dictionary file and the snapshot file.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LexiconSnapshot <dictionary> <snapshot>");
+            System.exit(2);
+        }
+        write(WordList.read(Paths.get(args[0])).words(), Paths.get(args[1]));
+        System.out.println("Wrote " + args[1] + " (version " + VERSION + ")");
+    }
+
+    /**
+     *
+     * @return The alphabet of the words in the snapshot.
+     */
+    Alphabet alphabet() {
+        return alphabet;
+    }
+
+    @Override
+    public String get(String word) {
+        return find(word, null, 0, word.length(), word.hashCode()) ? word : null;
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        return find(null, chars, offset, length, hash) ? new String(chars, offset, length) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Decodes every word in the snapshot. Only needed by the suggestion
+     * engines that build their own index from the words.
+     *
+     * @return The words in the order they were written.
+     */
+    List<String> words() {
+        List<String> words = new ArrayList<>(size);
+        int at = dataStart;
+        for (int w = 0; w < size; w++) {
+            int length = buffer.getInt(at);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = buffer.getChar(at + 4 + i * 2);
+            }
+            words.add(new String(chars));
+            at += 4 + length * 2;
+        }
+        return words;
+    }
+
+    /**
+     * Probes the table for a word given either as a String or as characters.
+     */
+    private boolean find(String word, char[] chars, int offset, int length, int hash) {
+        int slot = spread(hash) & mask;
+        while (true) {
+            int entry = HEADER_BYTES + slot * 8;
+            int wordOffset = buffer.getInt(entry + 4);
+            if (wordOffset == EMPTY) {
+                return false;
+            }
+            if (buffer.getInt(entry) == hash && matches(dataStart + wordOffset, word, chars, offset, length)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean matches(int at, String word, char[] chars, int offset, int length) {
+        if (buffer.getInt(at) != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = word != null ? word.charAt(i) : chars[offset + i];
+            if (buffer.getChar(at + 4 + i * 2) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same mixing as MyHashSet so both tables spread words the same way.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+}
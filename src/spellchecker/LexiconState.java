@@ -0,0 +1,358 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One version of the dictionary with everything built from it: the lexicon,
+ * the index of the configured suggestion engine and the word counts. A state
+ * is never changed once it is built. The spell checker swaps in a new one to
+ * change the dictionary, so a check that started on the old one finishes on
+ * it undisturbed.
+ *
+ * The dictionary may be made of layers, a base dictionary and word lists on
+ * top of it. The lexicon then holds the words of all layers, and a check that
+ * enables only some of them looks through a view of the layered lexicon. The
+ * suggestion engines index the words of all layers. The layered lexicon is
+ * its own hash table, so it takes the place of the lexicon type and of the
+ * mapped snapshot, which then only supplies the base words. A Bloom filter is
+ * built from the words of all layers and sits in front of the views too.
+ *
+ * Words added or removed at runtime are kept as a small overlay on top of the
+ * built structures, and count for every layer. A state with changes shares
+ * all the built structures of the state it was made from and only copies the
+ * overlay.
+ *
+ * @author russell
+ */
+class LexiconState {
+
+    private static final Map<String, Boolean> NO_EDITS = Collections.emptyMap();
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    // Unique to this state, tags what was found in it without holding it.
+    final long generation = GENERATIONS.incrementAndGet();
+
+    // The number of layers, the base layer included.
+    private final int layerCount;
+    // Set when there is more than one layer.
+    private final LayeredLexicon layered;
+    // The mask with the bits of all layers set.
+    private final int allLayers;
+    // Lexicon built from the lines, without the runtime changes.
+    private final Lexicon base;
+    // The words that are spelled correctly, with the runtime changes.
+    final Lexicon lex;
+    // The characters of the dictionary and which of them follow each other.
+    final Alphabet alphabet;
+    // Delete variants of the dictionary, only built for that engine.
+    final DeleteIndex deleteIndex;
+    // Phonetic keys of the dictionary, null when not configured.
+    final PhoneticIndex phonetic;
+    // Set when the lexicon is a word graph, which is then also searched.
+    final TrieLexicon trie;
+    // Set when the words are kept in a hash table.
+    final HashLexicon table;
+    // Set when the words are kept in a perfect hash table.
+    private final PerfectHashLexicon perfect;
+    // Set when the words are kept front coded.
+    private final FrontCodedLexicon frontCoded;
+    // Set when the lexicon was loaded from a snapshot file.
+    final LexiconSnapshot snapshot;
+    // Set when a Bloom filter sits in front of the lexicon.
+    final FilteredLexicon filtered;
+    // Word counts from the dictionary, null if it has none.
+    final Map<String, Long> frequencies;
+    // Runtime changes, each word mapped to whether it is now in the
+    // dictionary. Only words whose membership differs from the base.
+    final Map<String, Boolean> edits;
+    // Words added and removed at runtime, null if there are no changes.
+    private final MyHashSet<String> added;
+    private final MyHashSet<String> removed;
+
+    /**
+     * Builds the lexicon and whatever the suggestion engine needs from the
+     * dictionary words. The words are not kept, the alphabet and the index
+     * of the engine are built on the common fork/join pool meanwhile.
+     *
+     * @param layers The dictionary words of each layer, the base layer first.
+     * @param frequencies The word counts, null if there are none.
+     * @param snapshot The mapped snapshot the words came from, or null.
+     * @param engine The configured suggestion engine.
+     * @param maxDistance The configured maximum distance.
+     * @param type How the words are kept if there is no snapshot, a single
+     * layer and the engine does not need a word graph.
+     * @param bloomFalsePositiveRate The Bloom filter rate, 0 for no filter.
+     * @param phonetic true to build a phonetic index.
+     */
+    LexiconState(List<List<String>> layers, Map<String, Long> frequencies, LexiconSnapshot snapshot,
+            SuggestionEngine engine, int maxDistance, LexiconType type, double bloomFalsePositiveRate,
+            boolean phonetic) {
+        this.snapshot = snapshot;
+        this.frequencies = frequencies;
+        layerCount = layers.size();
+        allLayers = (1 << layerCount) - 1;
+        final List<String> lines;
+        if (layerCount > 1) {
+            layered = new LayeredLexicon(layers);
+            lines = layered.words();
+        } else {
+            layered = null;
+            lines = layers.get(0);
+        }
+        // The words of a snapshot are only decoded when something else needs
+        // them, and the snapshot stores its alphabet.
+        ForkJoinTask<Alphabet> alphabetTask = lines.isEmpty() && snapshot != null ? null
+                : ForkJoinPool.commonPool().submit(new Callable<Alphabet>() {
+                    @Override
+                    public Alphabet call() {
+                        return new Alphabet(lines);
+                    }
+                });
+        ForkJoinTask<DeleteIndex> indexTask = engine != SuggestionEngine.SYMMETRIC_DELETE ? null
+                : ForkJoinPool.commonPool().submit(new Callable<DeleteIndex>() {
+                    @Override
+                    public DeleteIndex call() {
+                        return new DeleteIndex(lines, maxDistance);
+                    }
+                });
+        TrieLexicon graph = null;
+        HashLexicon hashed = null;
+        PerfectHashLexicon perfectHashed = null;
+        FrontCodedLexicon coded = null;
+        ForkJoinTask<PhoneticIndex> phoneticTask = !phonetic ? null
+                : ForkJoinPool.commonPool().submit(new Callable<PhoneticIndex>() {
+                    @Override
+                    public PhoneticIndex call() {
+                        return new PhoneticIndex(lines);
+                    }
+                });
+        Lexicon words;
+        if (engine == SuggestionEngine.TRIE || engine == SuggestionEngine.AUTOMATON) {
+            graph = new TrieLexicon(lines);
+            words = graph;
+        } else if (layered != null) {
+            words = layered;
+        } else if (snapshot != null) {
+            words = snapshot;
+        } else if (type == LexiconType.PERFECT_HASH) {
+            perfectHashed = new PerfectHashLexicon(lines);
+            words = perfectHashed;
+        } else if (type == LexiconType.FRONT_CODED) {
+            coded = new FrontCodedLexicon(lines);
+            words = coded;
+        } else {
+            hashed = new HashLexicon(lines);
+            words = hashed;
+        }
+        trie = graph;
+        table = hashed;
+        perfect = perfectHashed;
+        frontCoded = coded;
+        if (bloomFalsePositiveRate > 0) {
+            filtered = new FilteredLexicon(words, lines, bloomFalsePositiveRate);
+            words = filtered;
+        } else {
+            filtered = null;
+        }
+        base = words;
+        lex = words;
+        alphabet = alphabetTask == null ? snapshot.alphabet() : alphabetTask.join();
+        deleteIndex = indexTask == null ? null : indexTask.join();
+        this.phonetic = phoneticTask == null ? null : phoneticTask.join();
+        edits = NO_EDITS;
+        added = null;
+        removed = null;
+    }
+
+    /**
+     * Shares the built structures of another state with a new set of changes.
+     */
+    private LexiconState(LexiconState built, Map<String, Boolean> edits) {
+        layerCount = built.layerCount;
+        layered = built.layered;
+        allLayers = built.allLayers;
+        base = built.base;
+        deleteIndex = built.deleteIndex;
+        phonetic = built.phonetic;
+        trie = built.trie;
+        table = built.table;
+        perfect = built.perfect;
+        frontCoded = built.frontCoded;
+        snapshot = built.snapshot;
+        filtered = built.filtered;
+        frequencies = built.frequencies;
+        this.edits = edits;
+        if (edits.isEmpty()) {
+            lex = base;
+            alphabet = built.alphabet;
+            added = null;
+            removed = null;
+        } else {
+            MyHashSet<String> addedWords = new MyHashSet<>(edits.size());
+            MyHashSet<String> removedWords = new MyHashSet<>(edits.size());
+            for (Map.Entry<String, Boolean> edit : edits.entrySet()) {
+                if (edit.getValue()) {
+                    addedWords.add(edit.getKey());
+                } else {
+                    removedWords.add(edit.getKey());
+                }
+            }
+            lex = new OverlayLexicon(base, addedWords, removedWords);
+            List<String> added = new ArrayList<>();
+            for (Map.Entry<String, Boolean> edit : edits.entrySet()) {
+                if (edit.getValue()) {
+                    added.add(edit.getKey());
+                }
+            }
+            // Added words may bring characters and pairs of their own.
+            alphabet = built.alphabet.with(added);
+            this.added = addedWords;
+            removed = removedWords;
+        }
+    }
+
+    /**
+     * The words of some layers with the runtime changes.
+     *
+     * @param layers The layers as a bit mask.
+     * @return The lexicon to check against.
+     */
+    Lexicon lexicon(int layers) {
+        if (layered == null || (layers & allLayers) == allLayers) {
+            return lex;
+        }
+        Lexicon view = new LayerView(layered, layers);
+        if (filtered != null) {
+            view = filtered.over(view);
+        }
+        return added == null ? view : new OverlayLexicon(view, added, removed);
+    }
+
+    /**
+     *
+     * @return true if words were removed at runtime, which the index engines
+     * still find until they are rebuilt.
+     */
+    boolean hasRemovals() {
+        return removed != null && removed.size() > 0;
+    }
+
+    /**
+     *
+     * @return The layers a word is in as a bit mask, with the runtime
+     * changes.
+     */
+    int layersOf(String word) {
+        Boolean edit = edits.get(word);
+        if (edit != null) {
+            return edit ? allLayers : 0;
+        }
+        if (layered != null) {
+            return layered.layers(word);
+        }
+        return base.get(word) != null ? allLayers : 0;
+    }
+
+    /**
+     * Whether a word already is where a change would put it: in every layer
+     * for an add, in none for a remove.
+     */
+    boolean has(String word, boolean present) {
+        int in = layersOf(word);
+        return present ? in == allLayers : in == 0;
+    }
+
+    /**
+     * Makes a state with more changes on top of this one. The overlay is
+     * copied, the built structures are shared.
+     *
+     * @param changes Words mapped to whether they should be in the dictionary.
+     * @return The new state.
+     */
+    LexiconState withEdits(Map<String, Boolean> changes) {
+        Map<String, Boolean> merged = new HashMap<>(edits);
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            int in = layered != null ? layered.layers(change.getKey()) : base.get(change.getKey()) != null
+                    ? allLayers : 0;
+            if (in == (change.getValue() ? allLayers : 0)) {
+                // Back to what the base says, so nothing to overlay.
+                merged.remove(change.getKey());
+            } else {
+                merged.put(change.getKey(), change.getValue());
+            }
+        }
+        return new LexiconState(this, merged);
+    }
+
+    /**
+     * Reads the words back out of the built structures, since the words they
+     * were built from are not kept.
+     *
+     * @return The words of each layer of this state with the runtime changes
+     * applied, to build a new state from.
+     */
+    List<List<String>> layerWords() {
+        List<List<String>> result = new ArrayList<>(layerCount);
+        for (int layer = 0; layer < layerCount; layer++) {
+            List<String> built;
+            if (layered != null) {
+                built = layered.words(1 << layer);
+            } else if (trie != null) {
+                built = trie.words();
+            } else if (table != null) {
+                built = table.words();
+            } else if (perfect != null) {
+                built = perfect.words();
+            } else if (frontCoded != null) {
+                built = frontCoded.words();
+            } else {
+                built = snapshot.words();
+            }
+            List<String> words = new ArrayList<>(built.size() + edits.size());
+            for (String word : built) {
+                if (removed == null || removed.get(word) == null) {
+                    words.add(word);
+                }
+            }
+            for (Map.Entry<String, Boolean> edit : edits.entrySet()) {
+                if (edit.getValue()) {
+                    words.add(edit.getKey());
+                }
+            }
+            result.add(words);
+        }
+        return result;
+    }
+
+}
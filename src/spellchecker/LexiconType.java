@@ -0,0 +1,57 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The ways the spell checker can keep the dictionary words in memory for the
+ * default and symmetric delete engines. The word graph engines always keep
+ * them in their graph, and a configured snapshot is always used as it is.
+ *
+ * @author russell
+ */
+public enum LexiconType {
+
+    /**
+     * A MyHashSet, which suits any dictionary. This is the default.
+     */
+    HASH,
+    /**
+     * A minimal perfect hash function over the words with a one byte
+     * fingerprint per word, for dictionaries that are fixed between
+     * deployments. It takes less memory than the hash set and a lookup that
+     * misses rarely touches a word. Words added at runtime are kept on top
+     * of it until the next rebuild.
+     */
+    PERFECT_HASH,
+    /**
+     * The sorted words front coded in blocks of a single byte array, for
+     * dictionaries of millions of words. It takes several times less memory
+     * than the hash set for a lookup that is a binary search and a short scan
+     * instead of a probe. A Bloom filter in front of it answers most misses
+     * without searching. A dictionary with layers is kept in the layered
+     * hash table whatever the type.
+     */
+    FRONT_CODED
+
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a spell checker that was configured with metrics. A spell
+ * checker without metrics has none of these, so the hot paths only pay for a
+ * null check.
+ *
+ * @author russell
+ */
+class Metrics {
+
+    /**
+     * The edit generators of the default engine, in the order of the ranks of
+     * their edits.
+     */
+    static final String[] GENERATORS = {"adjacentSwap", "deleteChar", "insertChar", "replaceChar"};
+
+    final LatencyHistogram wordValid = new LatencyHistogram();
+    final LatencyHistogram wordFix = new LatencyHistogram();
+    private final LongAdder[] candidates = new LongAdder[GENERATORS.length];
+    private final LongAdder[] hits = new LongAdder[GENERATORS.length];
+    private final LongAdder loads = new LongAdder();
+    private volatile long lastLoadNanos;
+
+    Metrics() {
+        for (int i = 0; i < GENERATORS.length; i++) {
+            candidates[i] = new LongAdder();
+            hits[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Adds the counts of the word a probe last ran its generators on.
+     */
+    void recordProbe(EditProbe probe) {
+        for (int i = 0; i < GENERATORS.length; i++) {
+            candidates[i].add(probe.candidates(i));
+            int found = probe.hits(i);
+            if (found > 0) {
+                hits[i].add(found);
+            }
+        }
+    }
+
+    /**
+     * Records the time it took to read and build a dictionary.
+     */
+    void lexiconLoaded(long nanos) {
+        lastLoadNanos = nanos;
+        loads.increment();
+    }
+
+    long[] candidates() {
+        return sums(candidates);
+    }
+
+    long[] hits() {
+        return sums(hits);
+    }
+
+    long loads() {
+        return loads.sum();
+    }
+
+    long lastLoadNanos() {
+        return lastLoadNanos;
+    }
+
+    /**
+     * Reads all the counters, and the probe lengths of the hash table of the
+     * dictionary if it has one. Only the first read of a table walks it.
+     *
+     * @param state The current dictionary.
+     */
+    MetricsSnapshot snapshot(LexiconState state) {
+        HashLexicon table = state.table;
+        return new MetricsSnapshot(wordValid.stats(), wordFix.stats(), candidates(), hits(), loads(),
+                lastLoadNanos, state.lex.size(), table == null ? 0 : table.loadFactor(),
+                table == null ? null : table.probeLengths());
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+}
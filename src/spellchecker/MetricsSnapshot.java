@@ -0,0 +1,176 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counters of a spell checker taken at one point in time. The generator
+ * counts cover the default engine only, the other engines do not generate
+ * edit candidates.
+ *
+ * @author russell
+ */
+public class MetricsSnapshot {
+
+    private final LatencyStats wordValidLatency;
+    private final LatencyStats wordFixLatency;
+    private final long[] candidates;
+    private final long[] hits;
+    private final long lexiconLoads;
+    private final long lastLoadNanos;
+    private final int lexiconSize;
+    private final double loadFactor;
+    private final long[] probeLengths;
+
+    MetricsSnapshot(LatencyStats wordValidLatency, LatencyStats wordFixLatency, long[] candidates, long[] hits,
+            long lexiconLoads, long lastLoadNanos, int lexiconSize, double loadFactor, long[] probeLengths) {
+        this.wordValidLatency = wordValidLatency;
+        this.wordFixLatency = wordFixLatency;
+        this.candidates = candidates;
+        this.hits = hits;
+        this.lexiconLoads = lexiconLoads;
+        this.lastLoadNanos = lastLoadNanos;
+        this.lexiconSize = lexiconSize;
+        this.loadFactor = loadFactor;
+        this.probeLengths = probeLengths;
+    }
+
+    /**
+     *
+     * @return Latencies of wordValid, including the calls made by check.
+     */
+    public LatencyStats getWordValidLatency() {
+        return wordValidLatency;
+    }
+
+    /**
+     *
+     * @return Latencies of both wordFix methods, including the calls made by
+     * check and those answered from the suggestion cache.
+     */
+    public LatencyStats getWordFixLatency() {
+        return wordFixLatency;
+    }
+
+    /**
+     *
+     * @return Candidates each generator probed the lexicon with, by the name
+     * of the generator.
+     */
+    public Map<String, Long> getCandidates() {
+        return byGenerator(candidates);
+    }
+
+    /**
+     *
+     * @return Candidates of each generator found in the lexicon, by the name
+     * of the generator.
+     */
+    public Map<String, Long> getHits() {
+        return byGenerator(hits);
+    }
+
+    /**
+     *
+     * @return The number of times the dictionary was read or rebuilt.
+     */
+    public long getLexiconLoads() {
+        return lexiconLoads;
+    }
+
+    /**
+     *
+     * @return The time the latest read or rebuild of the dictionary took, in
+     * nanoseconds.
+     */
+    public long getLastLoadNanos() {
+        return lastLoadNanos;
+    }
+
+    /**
+     *
+     * @return The number of words in the dictionary.
+     */
+    public int getLexiconSize() {
+        return lexiconSize;
+    }
+
+    /**
+     *
+     * @return The share of the hash table slots in use, or 0 if the lexicon
+     * is not a hash table.
+     */
+    public double getLoadFactor() {
+        return loadFactor;
+    }
+
+    /**
+     * The hash table uses linear probing, so the cost of a lookup is the
+     * number of slots probed rather than the length of a chain.
+     *
+     * @return Element i is the number of words found with i + 1 probes, or
+     * null if the lexicon is not a hash table.
+     */
+    public long[] getProbeLengths() {
+        return probeLengths == null ? null : probeLengths.clone();
+    }
+
+    /**
+     *
+     * @return The average number of probes to find a word, or 0 if the
+     * lexicon is not a hash table.
+     */
+    public double getMeanProbeLength() {
+        if (probeLengths == null) {
+            return 0;
+        }
+        long words = 0;
+        long probes = 0;
+        for (int i = 0; i < probeLengths.length; i++) {
+            words += probeLengths[i];
+            probes += probeLengths[i] * (i + 1);
+        }
+        return words == 0 ? 0 : (double) probes / words;
+    }
+
+    private static Map<String, Long> byGenerator(long[] counts) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            map.put(Metrics.GENERATORS[i], counts[i]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public String toString() {
+        return "wordValid[" + wordValidLatency + "] wordFix[" + wordFixLatency + "] candidates=" + getCandidates()
+                + " hits=" + getHits() + " loads=" + lexiconLoads + " lastLoad=" + lastLoadNanos / 1000000
+                + "ms size=" + lexiconSize + " loadFactor=" + loadFactor + " meanProbeLength=" + getMeanProbeLength()
+                + " maxProbeLength=" + (probeLengths == null ? 0 : probeLengths.length);
+    }
+
+}
@@ -1,7 +1,7 @@
 /*
  * The MIT License
  *
- * Copyright 2016 russell.
+ * Copyright 2016 Russell.
  *
  * Permission is hereby granted, free of charge, to any person obtaining a copy
  * of this software and associated documentation files (the "Software"), to deal
@@ -23,20 +23,37 @@
  */
 package spellchecker;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 /**
- * This is an implementation of a HashSet. It mods the hashcode of entries and
- * then finds the table position and adds it to a link list. Uses Open
- * collision. The size is generated based on the the number the entries and is
- * not dynamic past that point.
+ * This is an implementation of a HashSet. Entries are stored directly in a
+ * table using open addressing with linear probing, next to a parallel array
+ * holding their cached hash codes so most probes that miss never call equals.
+ * The table grows once it is more than three quarters full.
  *
  * @author russell
  * @param <E>
  */
 public class MyHashSet<E> {
 
+    private static final float LOAD_FACTOR = .75f;
+    private static final int MIN_CAPACITY = 16;
+    // Smallest range of slots filled by one task when building in parallel.
+    private static final int MIN_RANGE = 1 << 16;
+
     // Number of entries in hash set.
     private int size;
-    private final MyLinkList<E>[] set;
+    // Entries in the table, null marks an empty slot.
+    private Object[] keys;
+    // Hash code of the entry in the same slot of keys.
+    private int[] hashes;
+    private int mask;
+    // Size at which the table is grown.
+    private int threshold;
 
     /**
      * Create the table size based on a calculation run against the size given
@@ -46,38 +63,112 @@ public class MyHashSet<E> {
      * @param size
      */
     public MyHashSet(int size) {
-        int bounds = ((int) Math.round(size / .75));
-        set = new MyLinkList[bounds];
-        for (int i = 0; i < bounds; i++) {
-            set[i] = new MyLinkList<>();
-        }
+        allocate(tableSizeFor((int) Math.ceil(size / LOAD_FACTOR)));
+    }
 
+    /**
+     * Builds a set of many entries at once, filling separate ranges of the
+     * table in parallel on the common fork/join pool. Each task places the
+     * entries whose home slot is in its range. Entries whose run of filled
+     * slots reaches the end of the range are added on the calling thread
+     * once all tasks are done. Nothing is removed while the set is built, so
+     * the table ends up the same as if the entries had been added one by one
+     * in some order.
+     *
+     * @param entries The entries, whose hash codes should be cheap to get
+     * since every task reads all of them.
+     * @return The set of the entries.
+     */
+    static <E> MyHashSet<E> of(final List<E> entries) {
+        final MyHashSet<E> set = new MyHashSet<>(entries.size());
+        int tasks = Math.min(ForkJoinPool.getCommonPoolParallelism(), set.keys.length / MIN_RANGE);
+        if (tasks < 2) {
+            for (E e : entries) {
+                set.add(e);
+            }
+            return set;
+        }
+        List<ForkJoinTask<List<E>>> fills = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            final int from = (int) ((long) set.keys.length * t / tasks);
+            final int to = (int) ((long) set.keys.length * (t + 1) / tasks);
+            fills.add(ForkJoinPool.commonPool().submit(new Callable<List<E>>() {
+                @Override
+                public List<E> call() {
+                    return set.fill(entries, from, to);
+                }
+            }));
+        }
+        List<List<E>> spilled = new ArrayList<>(tasks);
+        for (ForkJoinTask<List<E>> fill : fills) {
+            spilled.add(fill.join());
+        }
+        // The tasks only ever fill empty slots, one per entry placed.
+        int placed = 0;
+        for (int i = 0; i < set.keys.length; i++) {
+            if (set.keys[i] != null) {
+                placed++;
+            }
+        }
+        set.size = placed;
+        for (List<E> spill : spilled) {
+            for (E e : spill) {
+                set.add(e);
+            }
+        }
+        return set;
     }
 
     /**
-     * Adds a entry to the hash set by modding the length with the hashcode of
-     * the entry.
+     * Places the entries whose home slot is in a range, without going past
+     * its end.
      *
-     * @param e
+     * @return The entries that did not fit in the range.
      */
-    public void add(E e) {
-        int hash = mod(e.hashCode(), set.length);
-        set[hash].add(e);
+    private List<E> fill(List<E> entries, int from, int to) {
+        List<E> spill = new ArrayList<>();
+        for (E e : entries) {
+            int hash = e.hashCode();
+            int i = spread(hash) & mask;
+            if (i < from || i >= to) {
+                continue;
+            }
+            while (i < to && keys[i] != null && (hashes[i] != hash || !e.equals(keys[i]))) {
+                i++;
+            }
+            if (i == to) {
+                spill.add(e);
+            } else if (keys[i] == null) {
+                keys[i] = e;
+                hashes[i] = hash;
+            }
+        }
+        return spill;
     }
 
     /**
-     * Mathematical mod for to integers.
+     * Adds a entry to the hash set. Entries already present are not added a
+     * second time.
      *
-     * @param x
-     * @param y
-     * @return
+     * @param e
+     * @return true if the entry was added.
      */
-    private int mod(int x, int y) {
-        int result = x % y;
-        if (result < 0) {
-            result += y;
+    public boolean add(E e) {
+        int hash = e.hashCode();
+        int i = spread(hash) & mask;
+        // Walks the run of filled slots until the entry or a gap is found.
+        while (keys[i] != null) {
+            if (hashes[i] == hash && e.equals(keys[i])) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = e;
+        hashes[i] = hash;
+        if (++size > threshold) {
+            resize(keys.length * 2);
         }
-        return result;
+        return true;
     }
 
     /**
@@ -86,26 +177,89 @@ public class MyHashSet<E> {
      * @param e
      * @return returns the data if present or null is not in the table.
      */
+    @SuppressWarnings("unchecked")
     public E get(E e) {
         if (e == null) {
             return null;
         }
+        int i = indexOf(e);
+        return i < 0 ? null : (E) keys[i];
+    }
 
-        int hash = mod(e.hashCode(), set.length);
-        int pos = 0;
-        // Iterates through the hash set until the object is found.
-        MyLinkList<E> ll = set[hash];
-        while (ll.get(pos) != null) {
-
-            if (e.equals(ll.get(pos))) {
-                return ll.get(pos);
+    /**
+     * Looks up an entry by a range of characters without creating a String.
+     * Only usable when the entries are CharSequences, such as the Strings of
+     * the lexicon.
+     *
+     * @param chars Buffer holding the characters.
+     * @param offset Position of the first character.
+     * @param length Number of characters.
+     * @param hash Must be the value String.hashCode returns for the same
+     * characters, which lets callers compute it incrementally.
+     * @return returns the data if present or null is not in the table.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(char[] chars, int offset, int length, int hash) {
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && contentEquals((CharSequence) keys[i], chars, offset, length)) {
+                return (E) keys[i];
             }
-            pos++;
+            i = (i + 1) & mask;
         }
-
         return null;
     }
 
+    /**
+     * Looks up an entry by a range of characters, computing the hash code.
+     *
+     * @param chars Buffer holding the characters.
+     * @param offset Position of the first character.
+     * @param length Number of characters.
+     * @return returns the data if present or null is not in the table.
+     */
+    public E get(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return get(chars, offset, length, hash);
+    }
+
+    /**
+     * Removes an entry from the hash set. The entries after it in the same run
+     * are shifted back so lookups never have to skip over deleted slots.
+     *
+     * @param e
+     * @return true if the entry was present and has been removed.
+     */
+    public boolean remove(E e) {
+        if (e == null) {
+            return false;
+        }
+        int i = indexOf(e);
+        if (i < 0) {
+            return false;
+        }
+        int gap = i;
+        int j = (i + 1) & mask;
+        while (keys[j] != null) {
+            int home = spread(hashes[j]) & mask;
+            // The entry can fill the gap if its home slot is not between the
+            // gap and its current slot, taking wrap around into account.
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                hashes[gap] = hashes[j];
+                gap = j;
+            }
+            j = (j + 1) & mask;
+        }
+        keys[gap] = null;
+        hashes[gap] = 0;
+        size--;
+        return true;
+    }
+
     /**
      *
      * @return The number of objects in the hashset.
@@ -115,4 +269,133 @@ public class MyHashSet<E> {
 
     }
 
+    /**
+     * Copies the entries out of the table.
+     *
+     * @return The entries in the order of their slots.
+     */
+    @SuppressWarnings("unchecked")
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(size);
+        for (Object key : keys) {
+            if (key != null) {
+                list.add((E) key);
+            }
+        }
+        return list;
+    }
+
+    /**
+     *
+     * @return The number of slots in the table.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Counts how far every entry sits from the slot its hash points at, which
+     * is what a lookup of it costs. Walks the whole table.
+     *
+     * @return Element i is the number of entries found with i + 1 probes.
+     */
+    public long[] probeLengths() {
+        int longest = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                longest = Math.max(longest, (i - (spread(hashes[i]) & mask)) & mask);
+            }
+        }
+        long[] counts = new long[size == 0 ? 0 : longest + 1];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                counts[(i - (spread(hashes[i]) & mask)) & mask]++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the slot holding an entry.
+     *
+     * @param e
+     * @return The slot of the entry or -1 if it is not in the table.
+     */
+    private int indexOf(Object e) {
+        int hash = e.hashCode();
+        int i = spread(hash) & mask;
+        while (keys[i] != null) {
+            if (hashes[i] == hash && e.equals(keys[i])) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean contentEquals(CharSequence key, char[] chars, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves every entry into a new table of the given size.
+     *
+     * @param capacity Must be a power of two.
+     */
+    private void resize(int capacity) {
+        Object[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != null) {
+                int i = spread(oldHashes[j]) & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Mixes the high bits of the hash code into the low bits, since only the
+     * low bits pick the slot.
+     *
+     * @param hash
+     * @return
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Rounds up to the next power of two so slots can be found with a mask.
+     *
+     * @param capacity
+     * @return
+     */
+    private static int tableSizeFor(int capacity) {
+        int n = MIN_CAPACITY;
+        while (n < capacity && n < (1 << 30)) {
+            n <<= 1;
+        }
+        return n;
+    }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Lexicon with a few words added or removed on top of another lexicon, so
+ * small changes to the dictionary take effect without rebuilding it. Added
+ * words are looked up first, then removed ones, then the lexicon below.
+ *
+ * @author russell
+ */
+class OverlayLexicon implements Lexicon {
+
+    private final Lexicon base;
+    private final MyHashSet<String> added;
+    private final MyHashSet<String> removed;
+    private final int size;
+
+    /**
+     * Puts changes on top of a lexicon. Added words must not be in the base
+     * lexicon and removed ones must be.
+     *
+     * @param base The lexicon the changes apply to.
+     * @param added Words that are in this lexicon but not in the base.
+     * @param removed Words that are in the base but not in this lexicon.
+     */
+    OverlayLexicon(Lexicon base, MyHashSet<String> added, MyHashSet<String> removed) {
+        this.base = base;
+        this.added = added;
+        this.removed = removed;
+        this.size = base.size() + added.size() - removed.size();
+    }
+
+    @Override
+    public String get(String word) {
+        String found = added.get(word);
+        if (found != null) {
+            return found;
+        }
+        if (removed.get(word) != null) {
+            return null;
+        }
+        return base.get(word);
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        String found = added.get(chars, offset, length, hash);
+        if (found != null) {
+            return found;
+        }
+        if (removed.get(chars, offset, length, hash) != null) {
+            return null;
+        }
+        return base.get(chars, offset, length, hash);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,359 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable lexicon behind a minimal perfect hash function, for dictionaries
+ * that do not change between deployments. The n words sit in an array of n
+ * slots with no empty ones, next to a one byte fingerprint per slot, and the
+ * hash function takes about 4 bits per word.
+ *
+ * The hash function is built the PTHash way over the String hash codes of the
+ * words, so the EditProbe can keep building its hashes incrementally. The
+ * codes are spread over buckets of about five codes each, and every bucket
+ * gets the smallest pilot value that sends all its codes to free positions of
+ * a table slightly larger than n. Codes that land past the end of the n slots
+ * are sent on to the slots left free. Buckets are placed largest first, and
+ * six in ten codes go to three in ten buckets, which keeps the pilots small.
+ *
+ * A lookup reads the pilot of its bucket, computes the slot and compares the
+ * fingerprint before touching the word. Codes that are not in the lexicon end
+ * up on the slot of some other word and are turned away by the fingerprint,
+ * except one in 256 that fall through to the word itself. Words whose hash
+ * code is the same as that of another word cannot get a slot of their own
+ * and are kept in a small hash set.
+ *
+ * @author russell
+ */
+class PerfectHashLexicon implements Lexicon {
+
+    // Average number of codes per bucket.
+    private static final double BUCKET_SIZE = 5;
+    // Share of the table the codes fill before the remapping.
+    private static final double ALPHA = 0.98;
+    // Largest pilot, so pilots fit in a char.
+    private static final int MAX_PILOT = 0xffff;
+
+    private final long seed;
+    private final int buckets;
+    // Buckets the dense six in ten codes go to.
+    private final int denseBuckets;
+    // Positions the pilots choose from, at least the number of slots.
+    private final int tableSize;
+    private final char[] pilots;
+    // Slot of each position past the last slot.
+    private final int[] remap;
+    private final String[] words;
+    private final byte[] fingerprints;
+    // Words whose hash code another word already has, null if there are none.
+    private final MyHashSet<String> overflow;
+    private final int size;
+
+    /**
+     * Builds the hash function and puts every word into its slot.
+     *
+     * @param list The dictionary words.
+     */
+    PerfectHashLexicon(List<String> list) {
+        // Distinct words, sorted by hash code so shared codes sit together.
+        String[] sorted = list.toArray(new String[list.size()]);
+        Arrays.sort(sorted, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                int order = Integer.compare(a.hashCode(), b.hashCode());
+                return order != 0 ? order : a.compareTo(b);
+            }
+        });
+        int[] codes = new int[sorted.length];
+        String[] owners = new String[sorted.length];
+        MyHashSet<String> shared = null;
+        int n = 0;
+        int total = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i].equals(sorted[i - 1])) {
+                continue;
+            }
+            total++;
+            int code = sorted[i].hashCode();
+            if (n > 0 && codes[n - 1] == code) {
+                if (shared == null) {
+                    shared = new MyHashSet<>(16);
+                }
+                shared.add(sorted[i]);
+                continue;
+            }
+            codes[n] = code;
+            owners[n] = sorted[i];
+            n++;
+        }
+        size = total;
+        overflow = shared;
+        buckets = Math.max(1, (int) Math.ceil(n / BUCKET_SIZE));
+        denseBuckets = (int) (buckets * 0.3);
+        tableSize = Math.max(n, (int) Math.ceil(n / ALPHA));
+        pilots = new char[buckets];
+        remap = new int[tableSize - n];
+        words = new String[n];
+        fingerprints = new byte[n];
+
+        // A seed that needs a pilot past the largest is not expected, but is
+        // simply replaced by the next one.
+        long candidate = 0;
+        while (!place(codes, n, candidate)) {
+            candidate++;
+        }
+        seed = candidate;
+        for (int i = 0; i < n; i++) {
+            int slot = slot(codes[i]);
+            words[slot] = owners[i];
+            fingerprints[slot] = fingerprint(hash(codes[i], seed));
+        }
+    }
+
+    /**
+     * Finds the pilots of all buckets and the remapping for one seed.
+     *
+     * @return false if some bucket found no pilot.
+     */
+    private boolean place(int[] codes, int n, long seed) {
+        long[] hashes = new long[n];
+        int[] bucketOf = new int[n];
+        int[] start = new int[buckets + 1];
+        for (int i = 0; i < n; i++) {
+            hashes[i] = hash(codes[i], seed);
+            bucketOf[i] = bucket(hashes[i]);
+            start[bucketOf[i] + 1]++;
+        }
+        for (int b = 0; b < buckets; b++) {
+            start[b + 1] += start[b];
+        }
+        // Hashes grouped by bucket.
+        long[] grouped = new long[n];
+        int[] fill = Arrays.copyOf(start, buckets);
+        int largest = 0;
+        for (int i = 0; i < n; i++) {
+            grouped[fill[bucketOf[i]]++] = hashes[i];
+        }
+        for (int b = 0; b < buckets; b++) {
+            largest = Math.max(largest, start[b + 1] - start[b]);
+        }
+        // Buckets ordered largest first, by counting sort on their size.
+        int[] bySize = new int[largest + 2];
+        for (int b = 0; b < buckets; b++) {
+            bySize[largest - (start[b + 1] - start[b]) + 1]++;
+        }
+        for (int s = 0; s <= largest; s++) {
+            bySize[s + 1] += bySize[s];
+        }
+        int[] order = new int[buckets];
+        for (int b = 0; b < buckets; b++) {
+            order[bySize[largest - (start[b + 1] - start[b])]++] = b;
+        }
+
+        long[] taken = new long[(tableSize + 63) >>> 6];
+        int[] positions = new int[largest];
+        for (int b : order) {
+            int from = start[b];
+            int count = start[b + 1] - from;
+            if (count == 0) {
+                break;
+            }
+            int pilot = 0;
+            while (true) {
+                if (pilot > MAX_PILOT) {
+                    return false;
+                }
+                if (fits(grouped, from, count, pilot, taken, positions)) {
+                    break;
+                }
+                pilot++;
+            }
+            pilots[b] = (char) pilot;
+            for (int j = 0; j < count; j++) {
+                taken[positions[j] >>> 6] |= 1L << positions[j];
+            }
+        }
+        // Positions past the last slot move to the slots left free, in order.
+        int free = 0;
+        for (int p = n; p < tableSize; p++) {
+            if ((taken[p >>> 6] & (1L << p)) != 0) {
+                while ((taken[free >>> 6] & (1L << free)) != 0) {
+                    free++;
+                }
+                remap[p - n] = free++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a pilot sends every code of a bucket to a free position
+     * of its own.
+     */
+    private boolean fits(long[] grouped, int from, int count, int pilot, long[] taken, int[] positions) {
+        long pilotHash = pilotHash(pilot);
+        for (int j = 0; j < count; j++) {
+            int p = position(grouped[from + j], pilotHash);
+            if ((taken[p >>> 6] & (1L << p)) != 0) {
+                return false;
+            }
+            for (int k = 0; k < j; k++) {
+                if (positions[k] == p) {
+                    return false;
+                }
+            }
+            positions[j] = p;
+        }
+        return true;
+    }
+
+    @Override
+    public String get(String word) {
+        int code = word.hashCode();
+        if (words.length > 0) {
+            long h = hash(code, seed);
+            int slot = slot(h);
+            if (fingerprints[slot] == fingerprint(h)) {
+                String found = words[slot];
+                if (found.equals(word)) {
+                    return found;
+                }
+            }
+        }
+        return overflow == null ? null : overflow.get(word);
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int code) {
+        if (words.length > 0) {
+            long h = hash(code, seed);
+            int slot = slot(h);
+            if (fingerprints[slot] == fingerprint(h)) {
+                String found = words[slot];
+                if (contentEquals(found, chars, offset, length)) {
+                    return found;
+                }
+            }
+        }
+        return overflow == null ? null : overflow.get(chars, offset, length, code);
+    }
+
+    /**
+     *
+     * @return The words of the lexicon, in no particular order.
+     */
+    List<String> words() {
+        List<String> list = new ArrayList<>(size);
+        for (String word : words) {
+            if (word != null) {
+                list.add(word);
+            }
+        }
+        if (overflow != null) {
+            list.addAll(overflow.toList());
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @return The bits the lexicon takes per word for the hash function and
+     * the fingerprints, without the words themselves.
+     */
+    double bitsPerWord() {
+        return size == 0 ? 0 : (pilots.length * 16.0 + remap.length * 32.0 + fingerprints.length * 8.0) / size;
+    }
+
+    private int slot(int code) {
+        return slot(hash(code, seed));
+    }
+
+    private int slot(long h) {
+        int p = position(h, pilotHash(pilots[bucket(h)]));
+        return p < words.length ? p : remap[p - words.length];
+    }
+
+    /**
+     * Buckets come from the high half of the hash, the dense buckets taking
+     * six in ten codes by the low half.
+     */
+    private int bucket(long h) {
+        long high = h >>> 32;
+        if (denseBuckets > 0 && (h & 0xffffffffL) < 0x99999999L) {
+            return (int) ((high * denseBuckets) >>> 32);
+        }
+        return denseBuckets + (int) ((high * (buckets - denseBuckets)) >>> 32);
+    }
+
+    private int position(long h, long pilotHash) {
+        // The table is shorter than 2^31, so the top 32 bits are enough and
+        // the product cannot overflow.
+        return (int) (((mix(h ^ pilotHash) >>> 32) * tableSize) >>> 32);
+    }
+
+    private static long hash(int code, long seed) {
+        return mix((code & 0xffffffffL) ^ (seed * 0x9e3779b97f4a7c15L));
+    }
+
+    private static long pilotHash(int pilot) {
+        return mix(pilot + 0x632be59bd9b4e019L);
+    }
+
+    /**
+     * The SplitMix64 finalizer, a bijection so distinct codes keep distinct
+     * hashes.
+     */
+    private static long mix(long h) {
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static byte fingerprint(long h) {
+        return (byte) (h >>> 24);
+    }
+
+    private static boolean contentEquals(String key, char[] chars, int offset, int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index from the phonetic key of every dictionary word back to the words with
+ * that key. A misspelling that sounds like the word it was meant to be, such
+ * as "fonetik" for "phonetic", is often several edits away from it, too far
+ * for the edit engines to reach, but shares its key. One lookup finds it.
+ *
+ * Words with the same key can still be far apart, so a candidate is only
+ * suggested if it is within a few edits of the word, fewer for short words.
+ *
+ * @author russell
+ */
+class PhoneticIndex {
+
+    // Key to either a single String or a String[] of words.
+    private final Map<String, Object> keys;
+
+    /**
+     * Builds the index for the given dictionary words.
+     *
+     * @param words The dictionary words.
+     */
+    PhoneticIndex(List<String> words) {
+        Map<String, List<String>> groups = new HashMap<>();
+        for (String word : words) {
+            String key = PhoneticKey.encode(word);
+            if (key.isEmpty()) {
+                continue;
+            }
+            List<String> group = groups.get(key);
+            if (group == null) {
+                group = new ArrayList<>(1);
+                groups.put(key, group);
+            }
+            group.add(word);
+        }
+        keys = new HashMap<>(groups.size() * 2);
+        for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+            List<String> members = group.getValue();
+            // Most keys belong to one word, which is stored without an array.
+            keys.put(group.getKey(), members.size() == 1 ? members.get(0)
+                    : members.toArray(new String[members.size()]));
+        }
+    }
+
+    /**
+     * Finds the dictionary words that sound like a word.
+     *
+     * @param word The misspelled word.
+     * @param corrections Hits are added here, ranked after every edit by
+     * their distance.
+     */
+    void suggest(String word, Corrections corrections) {
+        String key = PhoneticKey.encode(word);
+        Object entry = key.isEmpty() ? null : keys.get(key);
+        if (entry instanceof String) {
+            verify(word, (String) entry, corrections);
+        } else if (entry != null) {
+            for (String candidate : (String[]) entry) {
+                if (!verify(word, candidate, corrections)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Suggests a candidate if it is close enough to the word.
+     *
+     * @return false if the engine should stop searching.
+     */
+    private static boolean verify(String word, String candidate, Corrections corrections) {
+        if (!corrections.tick()) {
+            return false;
+        }
+        int max = maxDistance(word);
+        if (Math.abs(candidate.length() - word.length()) <= max) {
+            int d = EditDistance.distance(word, candidate, max);
+            if (d <= max) {
+                corrections.add(candidate, Corrections.PHONETIC + d);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * How far a sound-alike may be from the word, about one edit for every
+     * two characters.
+     */
+    private static int maxDistance(String word) {
+        return Math.max(1, Math.min(4, word.length() / 2));
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Metaphone key of a word: a rough spelling of how an English word sounds,
+ * so words that sound alike get the same key however they are spelled.
+ * "fonetik" and "phonetic" are both FNTK.
+ *
+ * Vowels are dropped except at the start, letters that sound the same are
+ * folded together and silent letters are left out. Only the letters A to Z
+ * count, anything else in the word is skipped. X stands for the "sh" sound
+ * and 0 for "th".
+ *
+ * @author russell
+ */
+final class PhoneticKey {
+
+    // Longer keys tell more words apart but match fewer misspellings.
+    static final int MAX_LENGTH = 6;
+
+    private PhoneticKey() {
+    }
+
+    /**
+     * Computes the key of a word.
+     *
+     * @param word The word, in any case.
+     * @return The key, empty if the word has no letters A to Z.
+     */
+    static String encode(CharSequence word) {
+        char[] w = new char[word.length()];
+        int n = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                w[n++] = (char) (c - ('a' - 'A'));
+            } else if (c >= 'A' && c <= 'Z') {
+                w[n++] = c;
+            }
+        }
+        StringBuilder key = new StringBuilder(MAX_LENGTH);
+        if (n == 0) {
+            return "";
+        }
+        int i = 0;
+        // Silent first letters.
+        if (n > 1) {
+            String start = new String(w, 0, 2);
+            if (start.equals("AE") || start.equals("GN") || start.equals("KN") || start.equals("PN")
+                    || start.equals("WR")) {
+                i = 1;
+            } else if (start.equals("WH")) {
+                key.append('W');
+                i = 2;
+            }
+        }
+        if (i == 0 && w[0] == 'X') {
+            key.append('S');
+            i = 1;
+        }
+        for (; i < n && key.length() < MAX_LENGTH; i++) {
+            char c = w[i];
+            // Doubled letters sound once, except for C as in "accent".
+            if (i > 0 && c == w[i - 1] && c != 'C') {
+                continue;
+            }
+            char next = at(w, n, i + 1);
+            char after = at(w, n, i + 2);
+            char previous = i > 0 ? w[i - 1] : 0;
+            switch (c) {
+                case 'A':
+                case 'E':
+                case 'I':
+                case 'O':
+                case 'U':
+                    if (i == 0) {
+                        key.append(c);
+                    }
+                    break;
+                case 'B':
+                    // Silent in a final "mb" as in "dumb".
+                    if (!(i == n - 1 && previous == 'M')) {
+                        key.append('B');
+                    }
+                    break;
+                case 'C':
+                    if (next == 'I' && after == 'A' || next == 'H') {
+                        key.append(previous == 'S' && next == 'H' ? 'K' : 'X');
+                        if (next == 'H') {
+                            i++;
+                        }
+                    } else if (next == 'I' || next == 'E' || next == 'Y') {
+                        if (previous != 'S') {
+                            key.append('S');
+                        }
+                    } else {
+                        key.append('K');
+                    }
+                    break;
+                case 'D':
+                    if (next == 'G' && isFront(after)) {
+                        key.append('J');
+                        i++;
+                    } else {
+                        key.append('T');
+                    }
+                    break;
+                case 'G':
+                    if (next == 'H' && i + 2 < n && !isVowel(after)) {
+                        // Silent as in "night".
+                        break;
+                    }
+                    if (next == 'N' && (i + 2 == n || (after == 'E' && at(w, n, i + 3) == 'D' && i + 4 == n))) {
+                        // Silent as in "sign" and "signed".
+                        break;
+                    }
+                    key.append(isFront(next) && previous != 'G' ? 'J' : 'K');
+                    break;
+                case 'H':
+                    if (isVowel(next) && !isModifier(previous)) {
+                        key.append('H');
+                    }
+                    break;
+                case 'K':
+                    if (previous != 'C') {
+                        key.append('K');
+                    }
+                    break;
+                case 'P':
+                    key.append(next == 'H' ? 'F' : 'P');
+                    break;
+                case 'Q':
+                    key.append('K');
+                    break;
+                case 'S':
+                    if (next == 'H' || (next == 'I' && (after == 'O' || after == 'A'))) {
+                        key.append('X');
+                    } else {
+                        key.append('S');
+                    }
+                    break;
+                case 'T':
+                    if (next == 'I' && (after == 'O' || after == 'A')) {
+                        key.append('X');
+                    } else if (next == 'H') {
+                        key.append('0');
+                    } else if (!(next == 'C' && after == 'H')) {
+                        key.append('T');
+                    }
+                    break;
+                case 'V':
+                    key.append('F');
+                    break;
+                case 'W':
+                case 'Y':
+                    if (isVowel(next)) {
+                        key.append(c);
+                    }
+                    break;
+                case 'X':
+                    key.append('K');
+                    if (key.length() < MAX_LENGTH) {
+                        key.append('S');
+                    }
+                    break;
+                case 'Z':
+                    key.append('S');
+                    break;
+                default:
+                    // F, J, L, M, N and R sound as they are written.
+                    key.append(c);
+                    break;
+            }
+        }
+        return key.toString();
+    }
+
+    private static char at(char[] w, int n, int i) {
+        return i < n ? w[i] : 0;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'A' || c == 'E' || c == 'I' || c == 'O' || c == 'U';
+    }
+
+    /**
+     * Letters that make a following C or G soft.
+     */
+    private static boolean isFront(char c) {
+        return c == 'E' || c == 'I' || c == 'Y';
+    }
+
+    /**
+     * Letters that an H after them changes the sound of, as in "ch" or "th".
+     */
+    private static boolean isModifier(char c) {
+        return c == 'C' || c == 'G' || c == 'P' || c == 'S' || c == 'T';
+    }
+
+}
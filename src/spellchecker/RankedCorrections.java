@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Keeps only the best few corrections and stops the engine once a time or
+ * probe budget is spent. Corrections are ordered by the word frequency from
+ * the dictionary when it has one, then by rank, then by the order they were
+ * found in.
+ *
+ * The best corrections sit in a heap with the worst of them on top, so a new
+ * correction only has to beat that one to get in. Words already offered are
+ * remembered in a hash set.
+ *
+ * @author russell
+ */
+class RankedCorrections extends Corrections {
+
+    // Probes made between two reads of the clock.
+    private static final int CLOCK_INTERVAL = 64;
+
+    // Orders by frequency, then rank, then the order of finding.
+    private static final Comparator<Candidate> BETTER_FIRST = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate a, Candidate b) {
+            if (a.frequency != b.frequency) {
+                return a.frequency > b.frequency ? -1 : 1;
+            }
+            if (a.rank != b.rank) {
+                return Integer.compare(a.rank, b.rank);
+            }
+            return Integer.compare(a.order, b.order);
+        }
+    };
+
+    private final int limit;
+    private final long deadline;
+    private final int maxProbes;
+    private final Map<String, Long> frequencies;
+    private final PriorityQueue<Candidate> best;
+    private final Set<String> seen = new HashSet<>();
+    private int probes;
+    private int order;
+    private boolean stopped;
+
+    /**
+     * Starts collecting for one query.
+     *
+     * @param limit Number of corrections kept.
+     * @param budgetNanos Time the search may take, 0 for no limit.
+     * @param maxProbes Probes the search may make, 0 for no limit.
+     * @param frequencies Word frequencies from the dictionary, may be null.
+     */
+    RankedCorrections(int limit, long budgetNanos, int maxProbes, Map<String, Long> frequencies) {
+        this.limit = limit;
+        this.deadline = budgetNanos > 0 ? System.nanoTime() + budgetNanos : 0;
+        this.maxProbes = maxProbes;
+        this.frequencies = frequencies;
+        this.best = new PriorityQueue<>(limit + 1, Collections.reverseOrder(BETTER_FIRST));
+    }
+
+    @Override
+    void add(String word, int rank) {
+        if (excluded(word) || !seen.add(word)) {
+            return;
+        }
+        Long frequency = frequencies == null ? null : frequencies.get(word);
+        Candidate candidate = new Candidate(word, frequency == null ? 0 : frequency, rank, order++);
+        if (best.size() < limit) {
+            best.add(candidate);
+        } else if (BETTER_FIRST.compare(candidate, best.peek()) < 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    @Override
+    boolean tick() {
+        if (stopped) {
+            return false;
+        }
+        // The budget is checked before the probe is used, so exactly
+        // maxProbes probes are made and a search that needs no more than
+        // that still counts as complete.
+        if (maxProbes > 0 && probes >= maxProbes) {
+            stopped = true;
+        } else if (deadline != 0 && probes % CLOCK_INTERVAL == 0 && probes > 0
+                && System.nanoTime() - deadline > 0) {
+            stopped = true;
+        } else {
+            probes++;
+        }
+        return !stopped;
+    }
+
+    @Override
+    boolean stopped() {
+        return stopped;
+    }
+
+    @Override
+    boolean isEmpty() {
+        return best.isEmpty();
+    }
+
+    @Override
+    String[] toArray() {
+        Candidate[] sorted = best.toArray(new Candidate[best.size()]);
+        Arrays.sort(sorted, BETTER_FIRST);
+        String[] words = new String[sorted.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = sorted[i].word;
+        }
+        return words;
+    }
+
+    /**
+     *
+     * @return The number of probes made.
+     */
+    int probes() {
+        return probes;
+    }
+
+    private static class Candidate {
+
+        final String word;
+        final long frequency;
+        final int rank;
+        final int order;
+
+        Candidate(String word, long frequency, int rank, int order) {
+            this.word = word;
+            this.frequency = frequency;
+            this.rank = rank;
+            this.order = order;
+        }
+
+    }
+
+}
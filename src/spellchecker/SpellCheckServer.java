@@ -0,0 +1,442 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Spell checks words sent over TCP on the loopback interface. The protocol is
+ * line based and UTF-8: a client sends one word per line and gets one line
+ * back per word, in the same order, holding a status and the word separated
+ * by tabs:
+ *
+ * <pre>
+ * OK    word
+ * MISS  word  suggestion suggestion ...
+ * BUSY  word
+ * </pre>
+ *
+ * Words are lower cased and trimmed first, the same as the interactive
+ * prompt, and blank lines are skipped.
+ *
+ * Every connection is served on its own thread, a virtual thread when the
+ * runtime has them. All connections share one spell checker. Words from all
+ * connections go into one bounded queue, and a dispatcher thread takes them
+ * off in micro-batches that are checked in parallel with checkBatch, so under
+ * load many small requests cost a few large batches. A client that sends
+ * several lines at once has them submitted together. When the queue stays
+ * full the connection stops reading, which pushes back on the client through
+ * TCP. A batch waits a short while for room, and its words that still cannot
+ * be queued then are answered with BUSY instead of being checked.
+ *
+ * @author russell
+ */
+public class SpellCheckServer implements Closeable {
+
+    private static final int DEFAULT_PORT = 7700;
+    // Largest number of words checked in one batch.
+    private static final int BATCH_SIZE = 256;
+    // Words waiting to be checked before connections are pushed back on.
+    private static final int QUEUE_CAPACITY = 4096;
+    // How long a batch waits for room in the queue before its words are
+    // turned away.
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final SpellChecker spell;
+    private final ServerSocket socket;
+    private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ExecutorService connections;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    /**
+     * Binds a server to a port of the loopback interface. It does not accept
+     * connections until it is started.
+     *
+     * @param spell The spell checker shared by all connections.
+     * @param port The port, or 0 for any free port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public SpellCheckServer(SpellChecker spell, int port) throws IOException {
+        this.spell = spell;
+        socket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        connections = connectionExecutor();
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "spellcheck-acceptor");
+        dispatcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        }, "spellcheck-dispatcher");
+        dispatcher.setDaemon(true);
+    }
+
+    /**
+     * Start application. Serves the dictionary file on the port given as the
+     * first argument, or on port 7700, until the process is stopped.
+     *
+     * @param args Optional port.
+     * @throws IOException If the port cannot be bound.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SpellCheckServer server = new SpellCheckServer(new SpellChecker(), port);
+        server.start();
+        System.out.println("Spell Checker listening on " + server.getPort());
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        dispatcher.start();
+        acceptor.start();
+    }
+
+    /**
+     *
+     * @return The port the server is bound to.
+     */
+    public int getPort() {
+        return socket.getLocalPort();
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones. Words still
+     * waiting to be checked are dropped.
+     *
+     * @throws IOException If the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+        connections.shutdownNow();
+        dispatcher.interrupt();
+    }
+
+    /**
+     * Connections run on virtual threads when the runtime has them, and on
+     * pooled platform threads otherwise.
+     */
+    private static ExecutorService connectionExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "spellcheck-connection");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            final Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException ex) {
+                if (!closed) {
+                    Logger.getLogger(SpellCheckServer.class.getName()).log(Level.SEVERE, null, ex);
+                }
+                return;
+            }
+            clients.add(client);
+            connections.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        serve(client);
+                    } catch (IOException ex) {
+                        // The client went away.
+                    } finally {
+                        clients.remove(client);
+                        try {
+                            client.close();
+                        } catch (IOException ex) {
+                            Logger.getLogger(SpellCheckServer.class.getName()).log(Level.FINE, null, ex);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Answers the words of one connection until it is closed. Lines that have
+     * already arrived are submitted together, then answered in order. The
+     * answers are written before any read that might block, so a client that
+     * has sent part of a line still gets the answers to the lines before it.
+     */
+    private void serve(Socket client) throws IOException {
+        LineReader in = new LineReader(client.getInputStream());
+        Writer out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8));
+        List<Request> pending = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        String text;
+        while ((text = in.take()) != null) {
+            pending.clear();
+            add(text, pending);
+            while (pending.size() < BATCH_SIZE && (text = in.poll()) != null) {
+                add(text, pending);
+            }
+            submit(pending);
+            for (Request request : pending) {
+                line.setLength(0);
+                CheckResult result = request.queued ? await(request) : null;
+                if (result == null) {
+                    line.append("BUSY\t").append(request.word);
+                } else if (result.isValid()) {
+                    line.append("OK\t").append(request.word);
+                } else {
+                    line.append("MISS\t").append(request.word).append('\t');
+                    String[] fixes = result.getSuggestions();
+                    if (fixes != null) {
+                        for (int j = 0; j < fixes.length; j++) {
+                            if (j > 0) {
+                                line.append(' ');
+                            }
+                            line.append(fixes[j]);
+                        }
+                    }
+                }
+                line.append('\n');
+                out.write(line.toString());
+            }
+            out.flush();
+        }
+    }
+
+    private static void add(String text, List<Request> pending) {
+        String word = text.toLowerCase(Locale.ROOT).trim();
+        if (!word.isEmpty()) {
+            pending.add(new Request(word));
+        }
+    }
+
+    /**
+     * Queues the words of a batch. If the queue is full the batch waits a
+     * little for room, once for all its words, and the words that still do
+     * not get in are answered with BUSY.
+     */
+    private void submit(List<Request> pending) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(OFFER_TIMEOUT_MILLIS);
+        try {
+            for (Request request : pending) {
+                long wait = deadline - System.nanoTime();
+                request.queued = wait > 0 ? queue.offer(request, wait, TimeUnit.NANOSECONDS) : queue.offer(request);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Server closed", ex);
+        }
+    }
+
+    private static CheckResult await(Request request) throws IOException {
+        try {
+            return request.result.get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Failed to check " + request.word, ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Server closed", ex);
+        }
+    }
+
+    /**
+     * Takes words off the queue in batches and checks each batch in parallel.
+     * While a batch is checked the next one builds up in the queue.
+     */
+    private void dispatch() {
+        List<Request> batch = new ArrayList<>(BATCH_SIZE);
+        List<String> words = new ArrayList<>(BATCH_SIZE);
+        while (!closed) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            for (Request request : batch) {
+                words.add(request.word);
+            }
+            try {
+                List<CheckResult> results = spell.checkBatch(words);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(results.get(i));
+                }
+            } catch (RuntimeException ex) {
+                for (Request request : batch) {
+                    request.result.completeExceptionally(ex);
+                }
+            }
+            batch.clear();
+            words.clear();
+        }
+    }
+
+    /**
+     * Splits what a connection sends into lines. Unlike BufferedReader.ready,
+     * which only tells that some bytes have arrived, poll tells whether a
+     * whole line can be had without blocking. A line ends at a carriage
+     * return or a line feed, so CRLF gives an extra blank line, which is
+     * skipped like any other.
+     */
+    private static final class LineReader {
+
+        private final InputStream in;
+        private byte[] buffer = new byte[8192];
+        // The bytes not yet returned are buffer[start, end).
+        private int start;
+        private int end;
+        // Bytes before this have no line end.
+        private int scanned;
+        private boolean eof;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         *
+         * @return The next line if it has already arrived, otherwise null.
+         */
+        String poll() throws IOException {
+            String line;
+            while ((line = buffered()) == null && !eof && in.available() > 0) {
+                fill();
+            }
+            return line;
+        }
+
+        /**
+         * Waits for the next line.
+         *
+         * @return The line, or null at the end of the stream.
+         */
+        String take() throws IOException {
+            String line;
+            while ((line = buffered()) == null && !eof) {
+                fill();
+            }
+            if (line == null && start < end) {
+                // The last line need not end with a line break.
+                line = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+                start = end;
+            }
+            return line;
+        }
+
+        private String buffered() {
+            for (int i = scanned; i < end; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r') {
+                    String line = new String(buffer, start, i - start, StandardCharsets.UTF_8);
+                    start = i + 1;
+                    scanned = start;
+                    return line;
+                }
+            }
+            scanned = end;
+            return null;
+        }
+
+        private void fill() throws IOException {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                scanned -= start;
+                start = 0;
+            }
+            if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        }
+
+    }
+
+    /**
+     * One word from a connection and its result.
+     */
+    private static class Request {
+
+        final String word;
+        // Completed by the dispatcher.
+        final CompletableFuture<CheckResult> result = new CompletableFuture<>();
+        // False if the queue stayed full and the word was turned away.
+        boolean queued;
+
+        Request(String word) {
+            this.word = word;
+        }
+
+    }
+
+}
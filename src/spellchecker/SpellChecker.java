@@ -23,45 +23,163 @@
  */
 package spellchecker;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * This class interacts with the hash set and attempts to correct a word if it
  * is incorrectly spelled. All potential corrections are stored then passed to
  * an interface for the user to read.
  *
+ * Everything built from the dictionary is kept in one state that is never
+ * changed once it is built, and every check keeps its own state, so one spell
+ * checker can be shared by any number of threads. Changing the dictionary
+ * swaps in a new state: words added or removed at runtime go into a copy of
+ * the small overlay on top of the current state, and reloading the
+ * dictionary file or folding the overlay into the lexicon builds a new state
+ * on a background thread. Checks never wait for any of this.
+ *
  * @author Russell
  */
 public class SpellChecker {
 
-    // This contains all the words taken from the dictionary file.
-    private final List<String> lines;
-    // The hash set object.
-    private MyHashSet<String> lex;
-    // Possible corrected versions of the word.
-    private final List<String> corrections;
-    private final char[] alphabet;
+    /**
+     * The name of the layer of the dictionary itself.
+     */
+    public static final String BASE_LAYER = "base";
+
+    /**
+     * The layer mask that checks against every layer.
+     */
+    public static final int ALL_LAYERS = -1;
+
+    private static final String[] NO_FIXES = new String[0];
+    // Runtime changes kept in the overlay before it is folded into the
+    // lexicon. The engines that build an index fold every change in, since
+    // added words only show up in their suggestions after that.
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    // Settings taken from the config when the spell checker is created.
+    private final SuggestionEngine engine;
+    private final int maxDistance;
+    private final LexiconType lexiconType;
+    private final double bloomFalsePositiveRate;
+    private final boolean phonetic;
+    private final String dictionaryPath;
+    private final String snapshotPath;
+    // The names and files of the layers on top of the dictionary.
+    private final List<String> layerNames;
+    private final List<String> layerPaths;
+    // Builds and probes the edit candidates of a word, one per thread since
+    // its buffers are reused between words.
+    private final ThreadLocal<EditProbe> probes;
+    // Suggestions of recent words, null when not configured.
+    private final SuggestionCache cache;
+    // Latencies and counters, null when not configured.
+    private final Metrics metrics;
+    // The current dictionary and everything built from it. Writers hold the
+    // lock of the spell checker, readers read it once per call.
+    private volatile LexiconState state;
+    // Builds new states, created on first use.
+    private ExecutorService builder;
+    // Set while a compaction is queued or running.
+    private boolean compacting;
 
     /**
      * Instantiates the the lines containing the dictionary words. Creates the
-     * lexicon, and creates an alphabet array that is used in some of word
-     * manipulation methods.
+     * lexicon, and collects the alphabet of the dictionary that is used in
+     * some of word manipulation methods.
      */
     public SpellChecker() {
+        this(new SpellCheckerConfig());
+    }
 
-        lines = new ArrayList<>();
-        corrections = new ArrayList<>();
-        alphabet = "abcdefghijklmnopqrstuvwxyz".toCharArray();
-        readDictionary();
-        makeLexicon();
+    /**
+     * Reads the dictionary file and creates the lexicon along with whatever
+     * the configured suggestion engine needs. If the config names a lexicon
+     * snapshot it is memory mapped instead, and the words are only decoded
+     * from it when the suggestion engine needs them.
+     *
+     * @param config Settings for the spell checker.
+     */
+    public SpellChecker(SpellCheckerConfig config) {
+
+        this(null, config);
+
+    }
+
+    /**
+     * Creates the lexicon from a list of words that is already in memory
+     * instead of reading the dictionary file. Used by the benchmarks so they
+     * can run without a dictionary file present.
+     *
+     * @param words The words that make up the lexicon.
+     */
+    public SpellChecker(List<String> words) {
+        this(words, new SpellCheckerConfig());
+    }
+
+    /**
+     * Creates the lexicon from a list of words that is already in memory,
+     * along with whatever the configured suggestion engine needs.
+     *
+     * A spell checker created this way still reloads from the configured
+     * dictionary file or snapshot.
+     *
+     * @param words The words that make up the lexicon, or null to read them
+     * as configured.
+     * @param config Settings for the spell checker.
+     */
+    public SpellChecker(List<String> words, SpellCheckerConfig config) {
+
+        engine = config.getEngine();
+        maxDistance = config.getMaxDistance();
+        lexiconType = config.getLexiconType();
+        bloomFalsePositiveRate = config.getBloomFalsePositiveRate();
+        phonetic = config.isPhoneticSuggestions();
+        dictionaryPath = config.getDictionaryPath();
+        snapshotPath = config.getSnapshotPath();
+        layerNames = new ArrayList<>(config.getLayers().keySet());
+        layerPaths = new ArrayList<>(config.getLayers().values());
+        if (engine == SuggestionEngine.AUTOMATON && maxDistance > LevenshteinAutomaton.MAX_DISTANCE) {
+            throw new IllegalArgumentException("the automaton engine supports a distance of at most "
+                    + LevenshteinAutomaton.MAX_DISTANCE);
+        }
+        cache = config.getSuggestionCacheSize() > 0 ? new SuggestionCache(config.getSuggestionCacheSize()) : null;
+        metrics = config.isMetricsEnabled() ? new Metrics() : null;
+        final CandidateHasher hasher = CandidateHasher.load(config.isVectorProbes());
+        probes = new ThreadLocal<EditProbe>() {
+            @Override
+            protected EditProbe initialValue() {
+                return new EditProbe(hasher);
+            }
+        };
+        long start = System.nanoTime();
+        state = words == null ? load()
+                : build(WordList.parse(words), null);
+        if (metrics != null) {
+            metrics.lexiconLoaded(System.nanoTime() - start);
+        }
 
     }
 
@@ -72,208 +190,650 @@ public class SpellChecker {
      * @return Returns true if the word is spelled correctly.
      */
     public boolean wordValid(String word) {
-        String wordExist = lex.get(word);
-        return wordExist != null;
+        if (metrics == null) {
+            String wordExist = state.lex.get(word);
+            return wordExist != null;
+        }
+        long start = System.nanoTime();
+        boolean valid = state.lex.get(word) != null;
+        metrics.wordValid.record(System.nanoTime() - start);
+        return valid;
+    }
+
+    /**
+     * Checks a word against some layers of the dictionary only.
+     *
+     * @param word The word to check.
+     * @param layers The layers to check against, from layerMask.
+     * @return true if the word is in one of the layers.
+     */
+    public boolean wordValid(String word, int layers) {
+        if (metrics == null) {
+            return state.lexicon(layers).get(word) != null;
+        }
+        long start = System.nanoTime();
+        boolean valid = state.lexicon(layers).get(word) != null;
+        metrics.wordValid.record(System.nanoTime() - start);
+        return valid;
     }
 
     /**
      * Takes an incorrectly spelled word and runs it against multiply simple
-     * solutions in attempt to correct the word.
+     * solutions in attempt to correct the word. How the corrections are found
+     * depends on the configured suggestion engine. If a suggestion cache is
+     * configured the word is looked up there first.
      *
      * @param word The incorrectly spelled word.
      * @return Returns an array of all the possible corrections.
      */
     public String[] wordFix(String word) {
-        // Runs the word through 4 methods in attempt to fix the word.
-        if (word.length() >= 1) {
-            adjacentSwap(word);
-            deleteChar(word);
-            insertChar(word);
-            replaceChar(word);
+        if (metrics == null) {
+            return fix(word);
         }
-        if (corrections.isEmpty()) {
-            return null;
+        long start = System.nanoTime();
+        String[] fixes = fix(word);
+        metrics.wordFix.record(System.nanoTime() - start);
+        return fixes;
+    }
+
+    /**
+     * Finds corrections for a word among some layers of the dictionary only.
+     * The suggestion cache only holds corrections from all layers, so it is
+     * skipped unless all of them are enabled.
+     *
+     * @param word The incorrectly spelled word.
+     * @param layers The layers to suggest from, from layerMask.
+     * @return The possible corrections, or null if there are none.
+     */
+    public String[] wordFix(String word, int layers) {
+        if (layers == ALL_LAYERS) {
+            return wordFix(word);
         }
-        String[] fixes = new String[corrections.size()];
-        for (int i = 0; i < fixes.length; i++) {
-            fixes[i] = corrections.get(i);
+        long start = metrics == null ? 0 : System.nanoTime();
+        Corrections corrections = new Corrections();
+        search(state, word, layers, corrections);
+        String[] fixes = corrections.isEmpty() ? null : corrections.toArray();
+        if (metrics != null) {
+            metrics.wordFix.record(System.nanoTime() - start);
         }
-        // Clears for reuse.
-        corrections.clear();
-
         return fixes;
+    }
 
+    /**
+     * Finds corrections for a word on the common fork/join pool, so the
+     * caller does not block while long words are searched.
+     *
+     * @param word The incorrectly spelled word.
+     * @return Completes with the possible corrections, or null if there are
+     * none.
+     */
+    public CompletableFuture<String[]> wordFixAsync(String word) {
+        return wordFixAsync(word, ForkJoinPool.commonPool());
     }
 
     /**
-     * Swaps the characters of the word with the characters beside it.
+     * Finds corrections for a word on an executor. The search sees the
+     * dictionary as it is when it starts running, not when it is submitted.
      *
-     * @param word Take in the misspelled word.
-     */
-    private void adjacentSwap(String word) {
-        char[] charWord = word.toCharArray();
-        char temp;
-        for (int i = 0; i < word.length() - 1; i++) {
-            temp = charWord[i];
-            charWord[i] = charWord[i + 1];
-            charWord[i + 1] = temp;
-            String tempWord = new String(charWord);
-            // If word is good and is not already present in the corrections then it will be added to the corrections arraylist.
-            if (lex.get(tempWord) != null) {
-                if (corrections.contains(tempWord) != true) {
-                    corrections.add(tempWord);
-                }
+     * @param word The incorrectly spelled word.
+     * @param executor The executor the search runs on.
+     * @return Completes with the possible corrections, or null if there are
+     * none.
+     * @throws java.util.concurrent.RejectedExecutionException If the executor
+     * does not take the search.
+     */
+    public CompletableFuture<String[]> wordFixAsync(final String word, Executor executor) {
+        if (word == null) {
+            throw new NullPointerException("word");
+        }
+        return CompletableFuture.supplyAsync(new Supplier<String[]>() {
+            @Override
+            public String[] get() {
+                return wordFix(word);
+            }
+        }, executor);
+    }
 
+    /**
+     * Makes the mask of some layers of the dictionary.
+     *
+     * @param names The layer names, BASE_LAYER for the dictionary itself.
+     * @return The mask to check with.
+     */
+    public int layerMask(String... names) {
+        int mask = 0;
+        for (String name : names) {
+            if (name.equals(BASE_LAYER)) {
+                mask |= 1;
+            } else {
+                int index = layerNames.indexOf(name);
+                if (index < 0) {
+                    throw new IllegalArgumentException("unknown layer: " + name);
+                }
+                mask |= 1 << (index + 1);
             }
+        }
+        return mask;
+    }
+
+    /**
+     *
+     * @return The names of the layers, BASE_LAYER first, in the order of
+     * their bits in a mask.
+     */
+    public List<String> getLayerNames() {
+        List<String> names = new ArrayList<>(layerNames.size() + 1);
+        names.add(BASE_LAYER);
+        names.addAll(layerNames);
+        return names;
+    }
+
+    /**
+     * Finds the layers a word is in. Words added at runtime are in all of
+     * them, removed words in none.
+     *
+     * @param word The word to look up.
+     * @return The mask of the layers the word is in, 0 if it is in none.
+     */
+    public int layersOf(String word) {
+        return state.layersOf(word);
+    }
 
-            temp = charWord[i];
-            charWord[i] = charWord[i + 1];
-            charWord[i + 1] = temp;
+    /**
+     * Finds the corrections of a word, from the cache if there is one.
+     */
+    private String[] fix(String word) {
+        LexiconState current = state;
+        if (cache == null) {
+            return findCorrections(current, word);
         }
+        String[] fixes = cache.get(word, current.generation);
+        if (fixes == null) {
+            String[] found = findCorrections(current, word);
+            // Words without corrections are cached as an empty array.
+            fixes = found == null ? NO_FIXES : found;
+            // Tagged with the state searched, so if it has been replaced
+            // meanwhile the entry is never read back.
+            cache.put(word, current.generation, fixes);
+        }
+        // Callers get their own copy so the cached one cannot be changed.
+        return fixes.length == 0 ? null : fixes.clone();
+    }
 
+    /**
+     * Reports how the suggestion cache is doing.
+     *
+     * @return The cache counters, or null if the spell checker was configured
+     * without a cache.
+     */
+    public CacheStats getCacheStats() {
+        return cache == null ? null : cache.stats();
     }
 
     /**
-     * Removes a single character for the word and then checks the words
-     * validity. Will then revert the word back to the previous state and then
-     * try the next character.
+     * Reads the metrics of the spell checker. Walks the hash table of the
+     * lexicon for its probe lengths, so it is not meant to be called for
+     * every check.
      *
-     * @param word
-     */
-    private void deleteChar(String word) {
-        char[] wordArray = word.toCharArray();
-        List<Character> wordList = new ArrayList<>();
-        for (int i = 0; i < wordArray.length; i++) {
-            wordList.add(wordArray[i]);
-        }
-        int i = 0;
-        while (i < wordList.size()) {
-            char temp = wordList.get(i);
-            wordList.remove(i);
-
-            char[] returnCharWord = new char[word.length() - 1];
-            for (int j = 0; j < wordList.size(); j++) {
-                returnCharWord[j] = wordList.get(j);
-            }
-            String returnWord = new String(returnCharWord);
-            // If word is good and is not already present in the corrections then it will be added to the corrections arraylist.
-            if (lex.get(returnWord) != null) {
-                if (corrections.contains(returnWord) != true) {
-                    corrections.add(returnWord);
+     * @return The metrics so far, or null if the spell checker was configured
+     * without metrics.
+     */
+    public MetricsSnapshot getMetrics() {
+        return metrics == null ? null : metrics.snapshot(state);
+    }
+
+    /**
+     * Registers the metrics of the spell checker with the platform MBean
+     * server, under a name unique to this spell checker.
+     *
+     * @return The name the MBean was registered under, to unregister it with.
+     * @throws JMException If the MBean could not be registered.
+     */
+    public ObjectName registerMetricsMBean() throws JMException {
+        if (metrics == null) {
+            throw new IllegalStateException("the spell checker was configured without metrics");
+        }
+        ObjectName name = new ObjectName("spellchecker:type=SpellChecker,id="
+                + Integer.toHexString(System.identityHashCode(this)));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new SpellCheckerMetrics(metrics, this), name);
+        return name;
+    }
+
+    /**
+     * Runs the configured suggestion engine.
+     *
+     * @param word The incorrectly spelled word.
+     * @return All the possible corrections, or null if there are none.
+     */
+    private String[] findCorrections(LexiconState current, String word) {
+        // Possible corrected versions of the word.
+        Corrections corrections = new Corrections();
+        search(current, word, ALL_LAYERS, corrections);
+        if (corrections.isEmpty()) {
+            return null;
+        }
+        return corrections.toArray();
+    }
+
+    /**
+     * Finds the best corrections for a word without spending more than the
+     * given budget on it. Corrections are ranked by the word counts in the
+     * dictionary if it has them, then by distance, or by kind of edit for the
+     * default engine. Once the time or the number of lookups runs out the
+     * search stops and returns what it has found so far. The suggestion cache
+     * is not used, since a search that is cut short may find different
+     * corrections from one run to the next.
+     *
+     * @param word The incorrectly spelled word.
+     * @param limit The most corrections returned, at least 1.
+     * @param budgetNanos The time the search may take, 0 for no limit.
+     * @param maxProbes The lookups the search may make, 0 for no limit.
+     * @return The best corrections found and whether the search finished.
+     */
+    public Suggestions wordFix(String word, int limit, long budgetNanos, int maxProbes) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1: " + limit);
+        }
+        long start = metrics == null ? 0 : System.nanoTime();
+        LexiconState current = state;
+        RankedCorrections corrections = new RankedCorrections(limit, budgetNanos, maxProbes, current.frequencies);
+        search(current, word, ALL_LAYERS, corrections);
+        Suggestions suggestions = new Suggestions(corrections.toArray(), !corrections.stopped(),
+                corrections.probes());
+        if (metrics != null) {
+            metrics.wordFix.record(System.nanoTime() - start);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Runs the configured suggestion engine into a collector.
+     */
+    private void search(LexiconState current, String word, int layers, Corrections corrections) {
+        Lexicon lexicon = current.lexicon(layers);
+        // The indexes hold the words of all layers, including removed ones.
+        if (lexicon != current.lex || current.hasRemovals()) {
+            corrections.restrict(lexicon);
+        }
+        switch (engine) {
+            case SYMMETRIC_DELETE:
+                current.deleteIndex.suggest(word, corrections);
+                break;
+            case TRIE:
+                current.trie.suggest(word, maxDistance, corrections);
+                break;
+            case AUTOMATON:
+                current.trie.intersect(new LevenshteinAutomaton(word, maxDistance), corrections);
+                break;
+            default:
+                if (word.length() >= 1) {
+                    // Runs the word through 4 methods in attempt to fix the word.
+                    EditProbe probe = probes.get();
+                    probe.load(lexicon, current.alphabet, word);
+                    probe.adjacentSwap(corrections);
+                    probe.deleteChar(corrections);
+                    probe.insertChar(corrections);
+                    probe.replaceChar(corrections);
+                    if (metrics != null) {
+                        metrics.recordProbe(probe);
+                    }
                 }
+                break;
+        }
+        if (current.phonetic != null && !corrections.stopped()) {
+            current.phonetic.suggest(word, corrections);
+        }
+    }
 
-            }
-            wordList.add(i, temp);
-            i++;
+    /**
+     * Reports how the Bloom filter in front of the lexicon is doing.
+     *
+     * @return The filter size and its counters, or null if the spell checker
+     * was configured without a filter. The counters start over whenever the
+     * lexicon is rebuilt.
+     */
+    public BloomFilterStats getBloomFilterStats() {
+        FilteredLexicon filtered = state.filtered;
+        return filtered == null ? null : filtered.stats();
+    }
+
+    /**
+     * Checks a single word and finds corrections for it if it is misspelled.
+     *
+     * @param word The word to check.
+     * @return Whether the word is valid along with any corrections.
+     */
+    public CheckResult check(String word) {
+        if (wordValid(word)) {
+            return new CheckResult(word, true, null);
+        }
+        return new CheckResult(word, false, wordFix(word));
+    }
+
+    /**
+     * Checks a single word against some layers of the dictionary only.
+     *
+     * @param word The word to check.
+     * @param layers The layers to check against, from layerMask.
+     * @return Whether the word is valid along with any corrections.
+     */
+    public CheckResult check(String word, int layers) {
+        if (wordValid(word, layers)) {
+            return new CheckResult(word, true, null);
         }
+        return new CheckResult(word, false, wordFix(word, layers));
+    }
+
+    /**
+     * Checks a batch of words in parallel on the common fork/join pool.
+     *
+     * @param words The words to check.
+     * @return One result per word, in the same order as the words.
+     */
+    public List<CheckResult> checkBatch(List<String> words) {
+        return checkBatch(words, ForkJoinPool.commonPool());
     }
 
     /**
-     * Iterates through the alphabet inserting every letter at every position in
-     * the array.
+     * Checks a batch of words in parallel. The batch is split in halves until
+     * the pieces are small enough to check on one thread, and every thread
+     * checks against the same lexicon.
      *
-     * @param word The misspelled word.
-     */
-    private void insertChar(String word) {
-        char[] wordArray = word.toCharArray();
-        List<Character> wordList = new ArrayList<>();
-        for (int i = 0; i < wordArray.length; i++) {
-            wordList.add(wordArray[i]);
-        }
-        int i = 1;
-        //Starts at the first valid insertion point.
-        while (i < wordArray.length) {
-            // A the current insertion point it interates though the entire alphabet.
-            for (int j = 0; j < alphabet.length; j++) {
-                wordList.add(i, alphabet[j]);
-
-                char[] returnCharWord = new char[wordList.size()];
-                for (int z = 0; z < wordList.size(); z++) {
-                    returnCharWord[z] = wordList.get(z);
+     * @param words The words to check.
+     * @param pool The pool the checks run on.
+     * @return One result per word, in the same order as the words.
+     */
+    public List<CheckResult> checkBatch(List<String> words, ForkJoinPool pool) {
+        String[] input = words.toArray(new String[words.size()]);
+        CheckResult[] results = new CheckResult[input.length];
+        pool.invoke(new BatchTask(input, results, 0, input.length));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks a range of a batch, splitting it while it is too large.
+     */
+    private class BatchTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // Words checked on one thread without splitting any further.
+        private static final int THRESHOLD = 32;
+
+        private final String[] words;
+        private final CheckResult[] results;
+        private final int from;
+        private final int to;
+
+        BatchTask(String[] words, CheckResult[] results, int from, int to) {
+            this.words = words;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = check(words[i]);
                 }
-                String returnWord = new String(returnCharWord);
-                // If word is good and is not already present in the corrections then it will be added to the corrections arraylist.
-                if (lex.get(returnWord) != null) {
-                    if (corrections.contains(returnWord) != true) {
-                        corrections.add(returnWord);
-                    }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new BatchTask(words, results, from, mid), new BatchTask(words, results, mid, to));
+            }
+        }
+
+    }
+
+    /**
+     * Adds a word to the dictionary, for this spell checker only. The word is
+     * valid from the next check on, whatever layers are checked. The engines
+     * that build an index only suggest it once the index has been rebuilt in
+     * the background.
+     *
+     * @param word The word to add.
+     * @return true if the word was not in every layer of the dictionary.
+     */
+    public boolean addWord(String word) {
+        return edit(word, true);
+    }
+
+    /**
+     * Removes a word from the dictionary, for this spell checker only. The
+     * word is invalid in every layer and no longer suggested from the next
+     * check on.
+     *
+     * @param word The word to remove.
+     * @return true if the word was in a layer of the dictionary.
+     */
+    public boolean removeWord(String word) {
+        return edit(word, false);
+    }
+
+    /**
+     * Reads the dictionary file, or the snapshot, and the layer files again
+     * and swaps them in once they are built. Checks carry on against the old
+     * dictionary meanwhile. Words added or removed before the reload starts
+     * are dropped, later ones are kept on top of the new dictionary.
+     *
+     * @return Completes once the new dictionary is in use, or exceptionally
+     * if it could not be read, in which case the old one stays in use.
+     */
+    public CompletableFuture<Void> reload() {
+        return CompletableFuture.runAsync(new Runnable() {
+            @Override
+            public void run() {
+                rebuild(true);
+            }
+        }, builder());
+    }
+
+    /**
+     * Puts a runtime change into a copy of the overlay and swaps it in.
+     */
+    private synchronized boolean edit(String word, boolean present) {
+        LexiconState current = state;
+        if (current.has(word, present)) {
+            return false;
+        }
+        publish(current.withEdits(Collections.singletonMap(word, present)));
+        if (needsCompaction()) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Swaps in a new state. Cached suggestions may be wrong for it, so they
+     * are dropped. Callers hold the lock.
+     */
+    private void publish(LexiconState next) {
+        state = next;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
 
+    /**
+     * Whether the overlay should be folded into the lexicon. A snapshot is
+     * kept mapped rather than copied onto the heap, so its overlay just grows.
+     */
+    private boolean needsCompaction() {
+        LexiconState current = state;
+        int size = current.edits.size();
+        if (engine != SuggestionEngine.EDITS) {
+            return size > 0;
+        }
+        return size >= COMPACT_THRESHOLD && current.snapshot == null;
+    }
+
+    /**
+     * Queues a rebuild of the lexicon with the overlay folded in, unless one
+     * is already queued.
+     */
+    private synchronized void compact() {
+        if (compacting) {
+            return;
+        }
+        compacting = true;
+        builder().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    rebuild(false);
+                } finally {
+                    compacted();
                 }
-                wordList.remove(i);
             }
-            // Increment to new insertion point.
-            i++;
+        });
+    }
 
+    private synchronized void compacted() {
+        compacting = false;
+        // Changes made during the rebuild are still in the overlay.
+        if (needsCompaction()) {
+            compact();
         }
     }
 
     /**
-     * Replaces each individual character in the array with all the letters one
-     * by one in the alphabet. Then shifts to the next insertion point after
-     * reseting the word.
+     * Builds a new state, either from the files or from the words of the
+     * current one, and swaps it in. Runs on the builder thread, so rebuilds
+     * never overlap.
      *
-     * @param word The misspelled word.
-     */
-    private void replaceChar(String word) {
-        char[] wordArray = word.toCharArray();
-        int i = 0;
-        // Insertion point
-        while (i < wordArray.length) {
-            char temp = wordArray[i];
-            // Interates though every letter in the alphabet.
-            for (int j = 0; j < alphabet.length; j++) {
-                wordArray[i] = alphabet[j];
-                String returnWord = new String(wordArray);
-                if (lex.get(returnWord) != null) {
-                    if (corrections.contains(returnWord) != true) {
-                        corrections.add(returnWord);
-                    }
+     * @param reload true to read the files again.
+     */
+    private void rebuild(boolean reload) {
+        LexiconState start = state;
+        long startNanos = System.nanoTime();
+        LexiconState built = reload ? load() : build(start.layerWords(), start.frequencies, null);
+        if (metrics != null) {
+            metrics.lexiconLoaded(System.nanoTime() - startNanos);
+        }
+        synchronized (this) {
+            // Changes made while building are applied again on top, including
+            // ones that undid a change the build started with.
+            LexiconState current = state;
+            Map<String, Boolean> changes = new HashMap<>();
+            for (Map.Entry<String, Boolean> edit : current.edits.entrySet()) {
+                if (!edit.getValue().equals(start.edits.get(edit.getKey()))) {
+                    changes.put(edit.getKey(), edit.getValue());
+                }
+            }
+            for (Map.Entry<String, Boolean> edit : start.edits.entrySet()) {
+                if (!current.edits.containsKey(edit.getKey())) {
+                    changes.put(edit.getKey(), !edit.getValue());
                 }
             }
-            wordArray[i] = temp;
-            i++;
+            publish(changes.isEmpty() ? built : built.withEdits(changes));
         }
     }
 
     /**
-     * Takes in a file and reads in all the the lines on it. Gets the words that
-     * will be used in the lexicon.
+     * The single thread that builds new states, so a large dictionary is
+     * never built twice at once.
      */
-    private void readDictionary() {
-        BufferedReader br = null;
-        File file = new File("dictionary.txt");
-        try {
-            br = new BufferedReader(new FileReader(file));
-        } catch (FileNotFoundException ex) {
-            Logger.getLogger(SpellChecker.class.getName()).log(Level.SEVERE, null, ex);
+    private synchronized ExecutorService builder() {
+        if (builder == null) {
+            builder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "spellchecker-builder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
         }
-        String line;
-        try {
-            int i = 0;
-            while ((line = br.readLine()) != null) {
+        return builder;
+    }
 
-                lines.add(i, line);
-                i++;
+    /**
+     * Reads the configured dictionary file or snapshot and builds a state
+     * from it.
+     */
+    private LexiconState load() {
+        if (snapshotPath != null) {
+            LexiconSnapshot snapshot = loadSnapshot(snapshotPath);
+            List<String> lines = new ArrayList<>();
+            // Only the engines that build an index of their own, the Bloom
+            // filter, the phonetic index and the layered lexicon need the
+            // words themselves.
+            if (engine != SuggestionEngine.EDITS || bloomFalsePositiveRate > 0 || phonetic
+                    || !layerPaths.isEmpty()) {
+                lines.addAll(snapshot.words());
             }
+            return build(WordList.of(lines), snapshot);
+        }
+        return build(readDictionary(dictionaryPath), null);
+    }
 
-        } catch (IOException ex) {
-            Logger.getLogger(SpellChecker.class.getName()).log(Level.SEVERE, null, ex);
+    /**
+     * Reads the layer files and builds a state from them on top of the words
+     * of the dictionary. Word counts of the dictionary win over those of the
+     * layers.
+     *
+     * @param base The words of the dictionary.
+     * @param snapshot The snapshot the words came from, or null.
+     */
+    private LexiconState build(WordList base, LexiconSnapshot snapshot) {
+        List<List<String>> layers = new ArrayList<>(layerPaths.size() + 1);
+        layers.add(base.words());
+        Map<String, Long> counts = base.counts();
+        for (String path : layerPaths) {
+            WordList layer = readDictionary(path);
+            layers.add(layer.words());
+            if (layer.counts() != null) {
+                if (counts == null) {
+                    counts = new HashMap<>();
+                }
+                for (Map.Entry<String, Long> count : layer.counts().entrySet()) {
+                    if (!counts.containsKey(count.getKey())) {
+                        counts.put(count.getKey(), count.getValue());
+                    }
+                }
+            }
         }
+        return build(layers, counts, snapshot);
+    }
+
+    /**
+     * Builds a state with the settings of this spell checker.
+     */
+    private LexiconState build(List<List<String>> layers, Map<String, Long> counts, LexiconSnapshot snapshot) {
+        return new LexiconState(layers, counts, snapshot, engine, maxDistance, lexiconType,
+                bloomFalsePositiveRate, phonetic);
+    }
+
+    /**
+     * Takes in a file and reads in all the the lines on it. Gets the words that
+     * will be used in the lexicon. A large file is read in chunks in
+     * parallel.
+     *
+     * @param path The dictionary file.
+     * @return The words of the file.
+     */
+    private static WordList readDictionary(String path) {
         try {
-            br.close();
-        } catch (IOException ex) {
+            return WordList.read(Paths.get(path));
+        } catch (IOException | UncheckedIOException ex) {
             Logger.getLogger(SpellChecker.class.getName()).log(Level.SEVERE, null, ex);
+            throw new UncheckedIOException("Cannot read dictionary " + path,
+                    ex instanceof IOException ? (IOException) ex : ((UncheckedIOException) ex).getCause());
         }
-
     }
 
     /**
-     * Adds all lines to the lexicon.
+     * Memory maps a lexicon snapshot.
+     *
+     * @param path The snapshot file.
+     * @return The mapped snapshot.
      */
-    private void makeLexicon() {
-        lex = new MyHashSet<>(lines.size());
-        for (String line : lines) {
-            lex.add(line);
+    private static LexiconSnapshot loadSnapshot(String path) {
+        try {
+            return LexiconSnapshot.load(Paths.get(path));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Cannot load lexicon snapshot " + path, ex);
         }
     }
 
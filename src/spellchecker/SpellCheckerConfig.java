@@ -0,0 +1,310 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings used when a spell checker is created. The defaults match the
+ * behaviour of a spell checker created without a config.
+ *
+ * @author russell
+ */
+public class SpellCheckerConfig {
+
+    private SuggestionEngine engine = SuggestionEngine.EDITS;
+    private int maxDistance = 1;
+    private LexiconType lexiconType = LexiconType.HASH;
+    private String dictionaryPath = "dictionary.txt";
+    private String snapshotPath;
+    private double bloomFalsePositiveRate;
+    private int suggestionCacheSize;
+    private boolean metricsEnabled;
+    private boolean phoneticSuggestions;
+    private boolean vectorProbes;
+    private final Map<String, String> layers = new LinkedHashMap<>();
+
+    /**
+     * Get the engine used to suggest corrections.
+     *
+     * @return The suggestion engine.
+     */
+    public SuggestionEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Set the engine used to suggest corrections.
+     *
+     * @param engine The suggestion engine.
+     */
+    public void setEngine(SuggestionEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine must not be null");
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Get the largest edit distance a suggestion may be from the word.
+     *
+     * @return The maximum distance.
+     */
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Set the largest edit distance a suggestion may be from the word. Engines
+     * that only find single edits ignore this.
+     *
+     * @param maxDistance At least one.
+     */
+    public void setMaxDistance(int maxDistance) {
+        if (maxDistance < 1) {
+            throw new IllegalArgumentException("maxDistance must be at least 1: " + maxDistance);
+        }
+        this.maxDistance = maxDistance;
+    }
+
+    /**
+     * Get how the dictionary words are kept in memory.
+     *
+     * @return The lexicon type.
+     */
+    public LexiconType getLexiconType() {
+        return lexiconType;
+    }
+
+    /**
+     * Set how the dictionary words are kept in memory. Only used by the
+     * engines that probe a lexicon, and not when a snapshot or layers are
+     * configured.
+     *
+     * @param lexiconType The lexicon type.
+     */
+    public void setLexiconType(LexiconType lexiconType) {
+        if (lexiconType == null) {
+            throw new IllegalArgumentException("lexiconType must not be null");
+        }
+        this.lexiconType = lexiconType;
+    }
+
+    /**
+     * Get the dictionary file the spell checker reads, and reads again when
+     * it is reloaded.
+     *
+     * @return The dictionary file.
+     */
+    public String getDictionaryPath() {
+        return dictionaryPath;
+    }
+
+    /**
+     * Set the dictionary file to read, one word per line.
+     *
+     * @param dictionaryPath The dictionary file.
+     */
+    public void setDictionaryPath(String dictionaryPath) {
+        if (dictionaryPath == null) {
+            throw new IllegalArgumentException("dictionaryPath must not be null");
+        }
+        this.dictionaryPath = dictionaryPath;
+    }
+
+    /**
+     * Get the lexicon snapshot the spell checker loads instead of reading the
+     * dictionary file.
+     *
+     * @return The snapshot file, or null to read the dictionary file.
+     */
+    public String getSnapshotPath() {
+        return snapshotPath;
+    }
+
+    /**
+     * Set a lexicon snapshot, compiled with LexiconSnapshot, to memory map
+     * instead of reading the dictionary file. With layers the snapshot only
+     * supplies the words of the base layer, which are looked up in the
+     * layered lexicon rather than in the mapped file.
+     *
+     * @param snapshotPath The snapshot file, or null to read the dictionary
+     * file.
+     */
+    public void setSnapshotPath(String snapshotPath) {
+        this.snapshotPath = snapshotPath;
+    }
+
+    /**
+     * Get the false positive rate of the Bloom filter put in front of the
+     * lexicon.
+     *
+     * @return The false positive rate, 0 if there is no filter.
+     */
+    public double getBloomFalsePositiveRate() {
+        return bloomFalsePositiveRate;
+    }
+
+    /**
+     * Put a Bloom filter in front of the lexicon, sized so that about the
+     * given share of the words not in the lexicon get past it. A lower rate
+     * turns away more misses but takes more memory, roughly 1.44 * log2(1 /
+     * rate) bits per word.
+     *
+     * @param bloomFalsePositiveRate Between 0 and 1, or 0 for no filter.
+     */
+    public void setBloomFalsePositiveRate(double bloomFalsePositiveRate) {
+        if (!(bloomFalsePositiveRate >= 0 && bloomFalsePositiveRate < 1)) {
+            throw new IllegalArgumentException("rate must be at least 0 and less than 1: " + bloomFalsePositiveRate);
+        }
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+    }
+
+    /**
+     * Get the number of words whose suggestions are cached.
+     *
+     * @return The cache capacity, 0 if suggestions are not cached.
+     */
+    public int getSuggestionCacheSize() {
+        return suggestionCacheSize;
+    }
+
+    /**
+     * Cache the suggestions of up to the given number of words. The cache
+     * does not change the suggestions, and is emptied whenever the dictionary
+     * changes.
+     *
+     * @param suggestionCacheSize The cache capacity, 0 for no cache.
+     */
+    public void setSuggestionCacheSize(int suggestionCacheSize) {
+        if (suggestionCacheSize < 0) {
+            throw new IllegalArgumentException("cache size must not be negative: " + suggestionCacheSize);
+        }
+        this.suggestionCacheSize = suggestionCacheSize;
+    }
+
+    /**
+     * Get whether the spell checker keeps metrics.
+     *
+     * @return true if metrics are kept.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Set whether the spell checker keeps latency histograms and counters,
+     * read with getMetrics or through JMX. Without them the checks only pay
+     * for a null check.
+     *
+     * @param metricsEnabled true to keep metrics.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Get whether sound-alike words are suggested.
+     *
+     * @return true if a phonetic index is kept.
+     */
+    public boolean isPhoneticSuggestions() {
+        return phoneticSuggestions;
+    }
+
+    /**
+     * Set whether the spell checker keeps a phonetic index of the dictionary
+     * and adds the words that sound like a misspelling to its suggestions,
+     * after the ones the engine finds. These catch misspellings such as
+     * "fonetik" that are too many edits away for the engine. Words added at
+     * runtime are only indexed once the lexicon is rebuilt.
+     *
+     * @param phoneticSuggestions true to suggest sound-alike words.
+     */
+    public void setPhoneticSuggestions(boolean phoneticSuggestions) {
+        this.phoneticSuggestions = phoneticSuggestions;
+    }
+
+    /**
+     * Get whether edit candidates are hashed with the Vector API.
+     *
+     * @return true if vector probes were asked for.
+     */
+    public boolean isVectorProbes() {
+        return vectorProbes;
+    }
+
+    /**
+     * Set whether the edit candidates of a word are hashed in batches with
+     * the incubating Vector API. This is experimental and needs the JVM to
+     * run with --add-modules jdk.incubator.vector and the jar to be built
+     * with the vector source set; without either the candidates are hashed
+     * one at a time as usual.
+     *
+     * @param vectorProbes true to try vector probes.
+     */
+    public void setVectorProbes(boolean vectorProbes) {
+        this.vectorProbes = vectorProbes;
+    }
+
+    /**
+     * Get the word lists layered on top of the dictionary.
+     *
+     * @return The layer names mapped to their files, in the order they were
+     * added.
+     */
+    public Map<String, String> getLayers() {
+        return Collections.unmodifiableMap(layers);
+    }
+
+    /**
+     * Add a word list layered on top of the dictionary, such as a medical or
+     * a project vocabulary. Checks take a mask of the layers to use, made
+     * with SpellChecker.layerMask, where the dictionary itself is the layer
+     * named "base".
+     *
+     * The layers are kept in one hash table of their own, whatever the
+     * lexicon type, and a snapshot only supplies the base layer. A Bloom
+     * filter is built from the words of all layers and also filters checks
+     * that use only some of them.
+     *
+     * @param name The name of the layer.
+     * @param path The word list file, one word per line.
+     */
+    public void addLayer(String name, String path) {
+        if (name == null || path == null) {
+            throw new IllegalArgumentException("layer name and path must not be null");
+        }
+        if (name.equals(SpellChecker.BASE_LAYER) || layers.containsKey(name)) {
+            throw new IllegalArgumentException("duplicate layer name: " + name);
+        }
+        if (layers.size() + 1 >= LayeredLexicon.MAX_LAYERS) {
+            throw new IllegalArgumentException("at most " + (LayeredLexicon.MAX_LAYERS - 1) + " layers");
+        }
+        layers.put(name, path);
+    }
+
+}
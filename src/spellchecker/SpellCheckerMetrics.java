@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The MBean a spell checker registers for its metrics. Every attribute reads
+ * the counters afresh, so a JMX console that reads them one by one sees
+ * counters that are a little apart from each other. The probe lengths of
+ * the lexicon attributes are counted once per hash table, so polling them
+ * does not walk the table again until the dictionary is rebuilt.
+ *
+ * @author russell
+ */
+class SpellCheckerMetrics implements SpellCheckerMetricsMBean {
+
+    private final Metrics metrics;
+    private final SpellChecker checker;
+
+    SpellCheckerMetrics(Metrics metrics, SpellChecker checker) {
+        this.metrics = metrics;
+        this.checker = checker;
+    }
+
+    @Override
+    public long getWordValidCount() {
+        return metrics.wordValid.stats().getCount();
+    }
+
+    @Override
+    public double getWordValidMeanMicros() {
+        return metrics.wordValid.stats().getMeanNanos() / 1000;
+    }
+
+    @Override
+    public double getWordValidP99Micros() {
+        return metrics.wordValid.stats().getPercentileNanos(99) / 1000.0;
+    }
+
+    @Override
+    public long getWordFixCount() {
+        return metrics.wordFix.stats().getCount();
+    }
+
+    @Override
+    public double getWordFixMeanMicros() {
+        return metrics.wordFix.stats().getMeanNanos() / 1000;
+    }
+
+    @Override
+    public double getWordFixP50Micros() {
+        return metrics.wordFix.stats().getPercentileNanos(50) / 1000.0;
+    }
+
+    @Override
+    public double getWordFixP99Micros() {
+        return metrics.wordFix.stats().getPercentileNanos(99) / 1000.0;
+    }
+
+    @Override
+    public double getWordFixMaxMicros() {
+        return metrics.wordFix.stats().getMaxNanos() / 1000.0;
+    }
+
+    @Override
+    public String[] getGenerators() {
+        return Metrics.GENERATORS.clone();
+    }
+
+    @Override
+    public long[] getGeneratorCandidates() {
+        return metrics.candidates();
+    }
+
+    @Override
+    public long[] getGeneratorHits() {
+        return metrics.hits();
+    }
+
+    @Override
+    public long getLexiconLoads() {
+        return metrics.loads();
+    }
+
+    @Override
+    public double getLastLoadMillis() {
+        return metrics.lastLoadNanos() / 1e6;
+    }
+
+    @Override
+    public int getLexiconSize() {
+        return checker.getMetrics().getLexiconSize();
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return checker.getMetrics().getLoadFactor();
+    }
+
+    @Override
+    public double getMeanProbeLength() {
+        return checker.getMetrics().getMeanProbeLength();
+    }
+
+    @Override
+    public int getMaxProbeLength() {
+        long[] lengths = checker.getMetrics().getProbeLengths();
+        return lengths == null ? 0 : lengths.length;
+    }
+
+}
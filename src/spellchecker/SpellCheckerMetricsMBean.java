@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * Metrics of a spell checker as seen through JMX. Times are in microseconds
+ * and the generator counts line up with the generator names.
+ *
+ * @author russell
+ */
+public interface SpellCheckerMetricsMBean {
+
+    long getWordValidCount();
+
+    double getWordValidMeanMicros();
+
+    double getWordValidP99Micros();
+
+    long getWordFixCount();
+
+    double getWordFixMeanMicros();
+
+    double getWordFixP50Micros();
+
+    double getWordFixP99Micros();
+
+    double getWordFixMaxMicros();
+
+    String[] getGenerators();
+
+    long[] getGeneratorCandidates();
+
+    long[] getGeneratorHits();
+
+    long getLexiconLoads();
+
+    double getLastLoadMillis();
+
+    int getLexiconSize();
+
+    double getLoadFactor();
+
+    double getMeanProbeLength();
+
+    int getMaxProbeLength();
+
+}
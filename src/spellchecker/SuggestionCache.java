@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of suggestions keyed by the word. Misspellings are heavily
+ * skewed towards a few common ones, which then cost one lookup instead of a
+ * full suggestion search.
+ *
+ * Every entry remembers the generation of the dictionary state it was found
+ * in, and is only handed out for that state. A search that finishes after the
+ * dictionary has been swapped may still put its result in, but it is never
+ * read back, and since it only holds the number it does not keep the old
+ * dictionary alive.
+ *
+ * The cache is split into segments by the hash of the key, each a least
+ * recently used map behind its own lock, so threads looking up different
+ * words rarely wait on each other. Each segment evicts on its own once it
+ * holds its share of the capacity.
+ *
+ * @author russell
+ */
+class SuggestionCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity Largest number of words kept.
+     */
+    SuggestionCache(int capacity) {
+        this.capacity = capacity;
+        int count = 1;
+        while (count < MAX_SEGMENTS && count * 2 <= capacity) {
+            count *= 2;
+        }
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // Spreads the remainder so the segments add up to the capacity.
+            segments[i] = new Segment(capacity / count + (i < capacity % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Looks up the suggestions for a word, counting a hit or a miss.
+     *
+     * @param key The word.
+     * @param generation The generation of the dictionary state the
+     * suggestions must come from.
+     * @return The cached suggestions or null if the word is not cached for
+     * that state.
+     */
+    String[] get(String key, long generation) {
+        Segment segment = segmentFor(key);
+        CachedFixes entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+        }
+        if (entry == null || entry.generation != generation) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Caches the suggestions for a word, evicting the least recently used word
+     * of its segment if the segment is full.
+     *
+     * @param key The word.
+     * @param generation The generation of the dictionary state the
+     * suggestions were found in.
+     * @param value The suggestions, not null.
+     */
+    void put(String key, long generation, String[] value) {
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, new CachedFixes(generation, value));
+        }
+    }
+
+    /**
+     * Drops every cached word, for when the dictionary has changed. The
+     * counters are kept.
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     *
+     * @return The counters so far and the number of cached words.
+     */
+    CacheStats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStats(capacity, size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment segmentFor(String key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Suggestions along with the generation of the state they were found in.
+     */
+    private static final class CachedFixes {
+
+        final long generation;
+        final String[] value;
+
+        CachedFixes(long generation, String[] value) {
+            this.generation = generation;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * Least recently used map of one segment.
+     */
+    private final class Segment extends LinkedHashMap<String, CachedFixes> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int limit;
+
+        Segment(int limit) {
+            super(16, .75f, true);
+            this.limit = limit;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedFixes> eldest) {
+            if (size() > limit) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The ways the spell checker can come up with suggestions for a misspelled
+ * word. Which one is used is picked per deployment through the
+ * SpellCheckerConfig.
+ *
+ * @author russell
+ */
+public enum SuggestionEngine {
+
+    /**
+     * Generates every single edit of the word and probes the lexicon with it.
+     * Only finds words one edit away.
+     */
+    EDITS,
+    /**
+     * Looks up the delete variants of the word in an index of the delete
+     * variants of every dictionary word, built with the lexicon. Finds words
+     * up to the configured maximum distance.
+     */
+    SYMMETRIC_DELETE,
+    /**
+     * Keeps the lexicon as a minimal acyclic word graph instead of a hash set
+     * and walks it with the distance to the word, dropping prefixes that are
+     * too far away. Finds words up to the configured maximum distance.
+     */
+    TRIE,
+    /**
+     * Keeps the lexicon as a word graph like TRIE, but compiles the word into
+     * a Levenshtein automaton and runs both side by side, so every step is a
+     * table lookup no matter how many different characters the dictionary
+     * uses. Finds words up to the configured maximum distance, which may be
+     * at most 3.
+     */
+    AUTOMATON
+
+}
@@ -0,0 +1,68 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+/**
+ * The best corrections found for a word within a budget.
+ *
+ * @author russell
+ */
+public class Suggestions {
+
+    private final String[] words;
+    private final boolean complete;
+    private final int probes;
+
+    Suggestions(String[] words, boolean complete, int probes) {
+        this.words = words;
+        this.complete = complete;
+        this.probes = probes;
+    }
+
+    /**
+     *
+     * @return The corrections, best first.
+     */
+    public String[] getWords() {
+        return words.clone();
+    }
+
+    /**
+     *
+     * @return false if the budget ran out before the search was finished, in
+     * which case better corrections may have been missed.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     *
+     * @return The number of lookups the search made.
+     */
+    public int getProbes() {
+        return probes;
+    }
+
+}
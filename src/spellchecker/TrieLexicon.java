@@ -0,0 +1,359 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lexicon stored as a minimal acyclic word graph, a trie in which identical
+ * subtrees, such as the common endings of words, are stored once. The graph
+ * is packed into flat arrays: the edges of every node sit next to each other,
+ * sorted by their character, so there is no object per word or per node.
+ *
+ * Besides membership, the graph is walked directly to find suggestions. The
+ * edit distance to the misspelled word is kept as one row of the distance
+ * table per character of the path, so a prefix that is already too far away
+ * is dropped together with every word that starts with it.
+ *
+ * @author russell
+ */
+class TrieLexicon implements Lexicon {
+
+    // edgeStart[node] to edgeStart[node + 1] are the edges of the node.
+    private final int[] edgeStart;
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+    // Nodes at which a word ends.
+    private final BitSet terminal;
+    private final int root;
+    private final int size;
+    private final int maxLength;
+
+    /**
+     * Builds a trie of the words and then merges equal subtrees bottom up.
+     *
+     * @param words The dictionary words.
+     */
+    TrieLexicon(List<String> words) {
+        BuildNode top = new BuildNode();
+        int count = 0;
+        int longest = 0;
+        for (String word : words) {
+            if (top.insert(word)) {
+                count++;
+                longest = Math.max(longest, word.length());
+            }
+        }
+        Packer packer = new Packer();
+        root = packer.pack(top);
+        edgeStart = Arrays.copyOf(packer.edgeStart, packer.nodes + 1);
+        edgeStart[packer.nodes] = packer.edges;
+        edgeLabel = Arrays.copyOf(packer.edgeLabel, packer.edges);
+        edgeTarget = Arrays.copyOf(packer.edgeTarget, packer.edges);
+        terminal = packer.terminal;
+        size = count;
+        maxLength = longest;
+    }
+
+    @Override
+    public String get(String word) {
+        return contains(word) ? word : null;
+    }
+
+    @Override
+    public String get(char[] chars, int offset, int length, int hash) {
+        int node = root;
+        for (int i = offset; i < offset + length && node >= 0; i++) {
+            node = child(node, chars[i]);
+        }
+        return node >= 0 && terminal.get(node) ? new String(chars, offset, length) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     *
+     * @return The words of the lexicon.
+     */
+    List<String> words() {
+        List<String> words = new ArrayList<>(size);
+        collect(root, new char[maxLength], 0, words);
+        return words;
+    }
+
+    private void collect(int node, char[] path, int depth, List<String> words) {
+        if (terminal.get(node)) {
+            words.add(new String(path, 0, depth));
+        }
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+            path[depth] = edgeLabel[e];
+            collect(edgeTarget[e], path, depth + 1, words);
+        }
+    }
+
+    /**
+     * Walks the graph for all the words within the given distance of a word.
+     * The distance counts the same edits the EditProbe makes.
+     *
+     * @param word The misspelled word.
+     * @param maxDistance Largest distance of a suggestion.
+     * @param corrections Hits are added here, ranked by their distance.
+     */
+    void suggest(String word, int maxDistance, Corrections corrections) {
+        Search search = new Search(word, maxDistance, corrections);
+        if (terminal.get(root) && word.length() <= maxDistance) {
+            corrections.add("", word.length());
+        }
+        search.walk(root, 0);
+    }
+
+    /**
+     * Runs the graph and the automaton side by side, following only the edges
+     * the automaton has a live transition for, and collects every word it
+     * accepts.
+     *
+     * @param automaton Automaton compiled from the misspelled word.
+     * @param corrections Hits are added here, ranked by their distance.
+     */
+    void intersect(LevenshteinAutomaton automaton, Corrections corrections) {
+        int start = automaton.start();
+        if (terminal.get(root) && automaton.accepts(start)) {
+            corrections.add("", automaton.distance(start));
+        }
+        intersect(automaton, root, start, new char[maxLength], 0, corrections);
+    }
+
+    private void intersect(LevenshteinAutomaton automaton, int node, int state, char[] path, int depth,
+            Corrections corrections) {
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+            if (!corrections.tick()) {
+                return;
+            }
+            char c = edgeLabel[e];
+            int next = automaton.step(state, c);
+            if (next < 0) {
+                continue;
+            }
+            path[depth] = c;
+            int target = edgeTarget[e];
+            if (terminal.get(target) && automaton.accepts(next)) {
+                corrections.add(new String(path, 0, depth + 1), automaton.distance(next));
+            }
+            intersect(automaton, target, next, path, depth + 1, corrections);
+        }
+    }
+
+    private boolean contains(String word) {
+        int node = root;
+        for (int i = 0; i < word.length() && node >= 0; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node >= 0 && terminal.get(node);
+    }
+
+    /**
+     * Binary search of the edges of a node.
+     *
+     * @return The node the edge leads to, or -1 if there is no such edge.
+     */
+    private int child(int node, char c) {
+        int low = edgeStart[node];
+        int high = edgeStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeLabel[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * State of one suggestion walk.
+     */
+    private class Search {
+
+        private final char[] word;
+        private final int max;
+        // rows[i] is the distance table row for the path of length i.
+        private final int[][] rows;
+        // Characters of the current path.
+        private final char[] path;
+        private final Corrections corrections;
+
+        Search(String text, int max, Corrections corrections) {
+            this.word = text.toCharArray();
+            this.max = max;
+            this.rows = new int[maxLength + 1][word.length + 1];
+            this.path = new char[maxLength];
+            this.corrections = corrections;
+            for (int j = 0; j <= word.length; j++) {
+                rows[0][j] = j;
+            }
+        }
+
+        void walk(int node, int depth) {
+            int n = word.length;
+            int i = depth + 1;
+            int[] previous = rows[depth];
+            int[] row = rows[i];
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                if (!corrections.tick()) {
+                    return;
+                }
+                char c = edgeLabel[e];
+                path[depth] = c;
+                row[0] = i;
+                int rowMin = i;
+                for (int j = 1; j <= n; j++) {
+                    int cost = word[j - 1] == c ? 0 : 1;
+                    int d = Math.min(Math.min(previous[j] + 1, row[j - 1] + 1), previous[j - 1] + cost);
+                    if (i > 1 && j > 1 && word[j - 1] == path[depth - 1] && word[j - 2] == c) {
+                        d = Math.min(d, rows[i - 2][j - 2] + 1);
+                    }
+                    row[j] = d;
+                    rowMin = Math.min(rowMin, d);
+                }
+                int target = edgeTarget[e];
+                if (row[n] <= max && terminal.get(target)) {
+                    corrections.add(new String(path, 0, i), row[n]);
+                }
+                // Row minimums never shrink further down the path.
+                if (rowMin <= max && i < maxLength) {
+                    walk(target, i);
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Mutable trie node used while building.
+     */
+    private static class BuildNode {
+
+        private char[] labels = new char[0];
+        private BuildNode[] children = new BuildNode[0];
+        private boolean end;
+
+        /**
+         * @return true if the word was not in the trie yet.
+         */
+        boolean insert(String word) {
+            BuildNode node = this;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.childFor(word.charAt(i));
+            }
+            boolean added = !node.end;
+            node.end = true;
+            return added;
+        }
+
+        private BuildNode childFor(char c) {
+            int pos = Arrays.binarySearch(labels, c);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            BuildNode child = new BuildNode();
+            char[] newLabels = new char[labels.length + 1];
+            BuildNode[] newChildren = new BuildNode[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newLabels[pos] = c;
+            newChildren[pos] = child;
+            System.arraycopy(labels, pos, newLabels, pos + 1, labels.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+
+    }
+
+    /**
+     * Assigns packed ids to nodes bottom up, giving nodes with the same end
+     * flag and the same edges to the same packed children the same id.
+     */
+    private static class Packer {
+
+        private final Map<String, Integer> registry = new HashMap<>();
+        private final BitSet terminal = new BitSet();
+        private int[] edgeStart = new int[64];
+        private char[] edgeLabel = new char[64];
+        private int[] edgeTarget = new int[64];
+        private int nodes;
+        private int edges;
+
+        int pack(BuildNode node) {
+            int[] targets = new int[node.children.length];
+            StringBuilder key = new StringBuilder();
+            key.append(node.end ? '1' : '0');
+            for (int i = 0; i < targets.length; i++) {
+                targets[i] = pack(node.children[i]);
+                key.append(node.labels[i]).append(targets[i]).append(',');
+            }
+            String signature = key.toString();
+            Integer existing = registry.get(signature);
+            if (existing != null) {
+                return existing;
+            }
+            int id = nodes++;
+            if (id + 1 >= edgeStart.length) {
+                edgeStart = Arrays.copyOf(edgeStart, edgeStart.length * 2);
+            }
+            if (edges + targets.length > edgeLabel.length) {
+                int capacity = Math.max(edgeLabel.length * 2, edges + targets.length);
+                edgeLabel = Arrays.copyOf(edgeLabel, capacity);
+                edgeTarget = Arrays.copyOf(edgeTarget, capacity);
+            }
+            edgeStart[id] = edges;
+            for (int i = 0; i < targets.length; i++) {
+                edgeLabel[edges] = node.labels[i];
+                edgeTarget[edges] = targets[i];
+                edges++;
+            }
+            if (node.end) {
+                terminal.set(id);
+            }
+            registry.put(signature, id);
+            return id;
+        }
+
+    }
+
+}
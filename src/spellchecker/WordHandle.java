@@ -23,6 +23,14 @@
  */
 package spellchecker;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 /**
@@ -32,6 +40,9 @@ import java.util.Scanner;
  * word is spelled incorrectly the user is given a few suggestions on how the
  * word is spelled incorrectly.
  *
+ * Started with --batch it checks words from a file or standard input without
+ * prompting instead, see BatchCheck for the output.
+ *
  */
 public class WordHandle {
 
@@ -47,13 +58,68 @@ public class WordHandle {
     }
 
     /**
-     * Start application.
+     * Start application. Without arguments the user is prompted for words.
+     * With --batch words are read from the input file, or standard input if
+     * there is none, and the results written to standard output or the
+     * --output file:
+     *
+     * <pre>
+     * WordHandle --batch [--jsonl] [--text] [--parallel threads] [--output file] [input]
+     * </pre>
+     *
+     * --jsonl writes JSON lines instead of TSV, --text reads free text instead
+     * of one word per line, and --parallel checks on that many threads while
+     * keeping the output in input order.
      *
      * @param args
+     * @throws IOException If the input cannot be read or the output written.
      */
-    public static void main(String[] args) {
-        WordHandle handle = new WordHandle();
-        handle.wordLoop();
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            WordHandle handle = new WordHandle();
+            handle.wordLoop();
+            return;
+        }
+        BatchCheck.Format format = BatchCheck.Format.TSV;
+        boolean text = false;
+        boolean batch = false;
+        int threads = 1;
+        String input = null;
+        String output = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--batch".equals(args[i])) {
+                batch = true;
+            } else if ("--jsonl".equals(args[i])) {
+                format = BatchCheck.Format.JSONL;
+            } else if ("--text".equals(args[i])) {
+                text = true;
+            } else if ("--parallel".equals(args[i]) && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if ("--output".equals(args[i]) && i + 1 < args.length) {
+                output = args[++i];
+            } else if (input == null && !args[i].startsWith("--")) {
+                input = args[i];
+            } else {
+                batch = false;
+                break;
+            }
+        }
+        if (!batch || threads < 1) {
+            System.err.println("Usage: WordHandle [--batch [--jsonl] [--text] [--parallel threads] "
+                    + "[--output file] [input]]");
+            System.exit(2);
+        }
+        BatchCheck check = new BatchCheck(new SpellChecker(), format, text, threads);
+        Reader in = input == null ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(input), StandardCharsets.UTF_8);
+        Writer out = output == null ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8);
+        try {
+            check.run(in, out);
+        } finally {
+            in.close();
+            out.close();
+        }
     }
 
     /**
@@ -78,9 +144,8 @@ public class WordHandle {
             } else {
 
                 String[] fixes = spell.wordFix(word);
-                spell.wordFix(word);
 
-                if (fixes.length >= 1) {
+                if (fixes != null && fixes.length >= 1) {
                     System.out.println("The word is misspelled. Below is possible correctly spelled words.");
                     for (String line : fixes) {
                         System.out.print(line + " ");
@@ -0,0 +1,286 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The words of a dictionary file along with the word counts of lines of the
+ * form "word count".
+ *
+ * A large file is split into chunks on line boundaries that are mapped,
+ * decoded and split into words in parallel on the common fork/join pool. The
+ * hash code of every word is computed there as well, so building the lexicon
+ * afterwards only has to place the words. Nothing but the words is kept once
+ * a chunk is done.
+ *
+ * The default hash lexicon is then filled in parallel as well, each task
+ * taking a range of its table. The perfect hash, front coded and word graph
+ * lexicons are built from the list on one thread, while the alphabet and the
+ * indexes are built beside them.
+ *
+ * @author russell
+ */
+class WordList {
+
+    // Files up to this size are read as a single chunk.
+    private static final int MIN_CHUNK = 1 << 20;
+    // Largest chunk, which must fit a single mapping.
+    private static final int MAX_CHUNK = 1 << 28;
+
+    private final List<String> words;
+    private final Map<String, Long> counts;
+
+    private WordList(List<String> words, Map<String, Long> counts) {
+        this.words = words;
+        this.counts = counts;
+    }
+
+    /**
+     * Reads a dictionary file, one word per line in UTF-8.
+     *
+     * @param path The dictionary file.
+     * @return The words in the order of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    static WordList read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+            long chunk = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (parallelism * 4L) + 1));
+            // Chunks end just past a newline, so no line is split.
+            List<ChunkTask> tasks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = size;
+                if (size - start > chunk) {
+                    end = lineEnd(channel, start + chunk, size);
+                }
+                tasks.add(new ChunkTask(channel, start, end));
+                start = end;
+            }
+            if (tasks.size() == 1) {
+                tasks.get(0).invoke();
+            } else {
+                ForkJoinTask.invokeAll(tasks);
+            }
+            int total = 0;
+            for (ChunkTask task : tasks) {
+                total += task.join().words.size();
+            }
+            List<String> words = new ArrayList<>(total);
+            Map<String, Long> counts = null;
+            for (ChunkTask task : tasks) {
+                WordList part = task.join();
+                words.addAll(part.words);
+                if (part.counts != null) {
+                    if (counts == null) {
+                        counts = new HashMap<>();
+                    }
+                    counts.putAll(part.counts);
+                }
+            }
+            return new WordList(words, counts);
+        }
+    }
+
+    /**
+     * Wraps words that have no counts.
+     *
+     * @param words The words.
+     * @return The words as they are.
+     */
+    static WordList of(List<String> words) {
+        return new WordList(words, null);
+    }
+
+    /**
+     * Splits the word counts off lines that are already in memory.
+     *
+     * @param lines The dictionary lines.
+     * @return The words in the order of the lines.
+     */
+    static WordList parse(List<String> lines) {
+        List<String> words = new ArrayList<>(lines.size());
+        Map<String, Long> counts = null;
+        for (String line : lines) {
+            counts = add(line, words, counts);
+        }
+        return new WordList(words, counts);
+    }
+
+    /**
+     *
+     * @return The words, without their counts.
+     */
+    List<String> words() {
+        return words;
+    }
+
+    /**
+     *
+     * @return The word counts, or null if no line had one.
+     */
+    Map<String, Long> counts() {
+        return counts;
+    }
+
+    /**
+     * Finds the end of the line a position is in.
+     *
+     * @return The position just past the next newline, or the size of the
+     * file if there is none.
+     */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long at = from;
+        while (at < size) {
+            buffer.clear();
+            int read = channel.read(buffer, at);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return at + i + 1;
+                }
+            }
+            at += read;
+        }
+        return size;
+    }
+
+    /**
+     * Adds the word of a line, splitting off its count if it has one.
+     *
+     * @return The counts, created once the first count is found.
+     */
+    private static Map<String, Long> add(String line, List<String> words, Map<String, Long> counts) {
+        int digits = countLength(line);
+        if (digits == 0) {
+            words.add(line);
+            return counts;
+        }
+        String word = line.substring(0, line.length() - digits - 1).trim();
+        if (counts == null) {
+            counts = new HashMap<>();
+        }
+        counts.put(word, Long.parseLong(line.substring(line.length() - digits)));
+        words.add(word);
+        return counts;
+    }
+
+    /**
+     * The number of digits of the count at the end of a line, 0 if it has
+     * none.
+     */
+    private static int countLength(String line) {
+        int split = Math.max(line.lastIndexOf(' '), line.lastIndexOf('\t'));
+        // Longer numbers would overflow a long.
+        if (split <= 0 || split == line.length() - 1 || line.length() - split - 1 > 18) {
+            return 0;
+        }
+        for (int i = split + 1; i < line.length(); i++) {
+            if (line.charAt(i) < '0' || line.charAt(i) > '9') {
+                return 0;
+            }
+        }
+        return line.length() - split - 1;
+    }
+
+    /**
+     * Maps, decodes and splits one chunk of the file.
+     */
+    private static final class ChunkTask extends RecursiveTask<WordList> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected WordList compute() {
+            CharBuffer chars;
+            try {
+                ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                // Malformed input is replaced, as a reader would do.
+                CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                chars = decoder.decode(bytes);
+            } catch (CharacterCodingException ex) {
+                throw new IllegalStateException(ex);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            List<String> words = new ArrayList<>();
+            Map<String, Long> counts = null;
+            int length = chars.remaining();
+            int lineStart = 0;
+            // Lines end the way BufferedReader.readLine ends them.
+            for (int i = 0; i <= length; i++) {
+                char c = i < length ? chars.get(i) : '\n';
+                if (c != '\n' && c != '\r') {
+                    continue;
+                }
+                if (i == length && lineStart == length) {
+                    break;
+                }
+                counts = add(chars.subSequence(lineStart, i).toString(), words, counts);
+                // Cached in the String, so the lexicon does not compute it.
+                words.get(words.size() - 1).hashCode();
+                if (c == '\r' && i + 1 < length && chars.get(i + 1) == '\n') {
+                    i++;
+                }
+                lineStart = i + 1;
+            }
+            return new WordList(words, counts);
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Applies random edits to a session and checks that a client that applies
+ * the diffs to its own list of diagnostics ends up with what a fresh session
+ * of the same text reports.
+ *
+ * @author russell
+ */
+public class EditorSessionTest {
+
+    private static final String TYPED = "abcdeé'xq  \n.,\u2014\u00a0\u2019\u0301";
+
+    private final SpellChecker spell = new SpellChecker(TestWords.dictionary(300, 5, new Random(1)));
+
+    @Test
+    public void diffsKeepClientInSync() {
+        Random random = new Random(7);
+        StringBuilder document = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            document.append(TestWords.word(1 + random.nextInt(5), random)).append(random.nextInt(5) == 0 ? ". " : " ");
+        }
+        EditorSession session = new EditorSession(spell, document.toString());
+        List<String> client = keys(session.getDiagnostics());
+        StringBuilder mirror = new StringBuilder(document);
+        for (int n = 0; n < 3000; n++) {
+            int length = mirror.length();
+            int offset = random.nextInt(length + 1);
+            int removed = random.nextInt(3) == 0 ? Math.min(length - offset, random.nextInt(6)) : 0;
+            StringBuilder inserted = new StringBuilder();
+            int count = removed > 0 && random.nextBoolean() ? 0 : 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                inserted.append(TYPED.charAt(random.nextInt(TYPED.length())));
+            }
+            DiagnosticDiff diff = session.edit(offset, removed, inserted.toString());
+            mirror.replace(offset, offset + removed, inserted.toString());
+            client = apply(client, diff, offset, removed, inserted.length() - removed);
+            assertEquals(mirror.toString(), session.getText());
+            assertEquals("edit " + n, keys(new EditorSession(spell, mirror.toString()).getDiagnostics()), client);
+        }
+    }
+
+    @Test
+    public void editOutsideWordsChangesNothing() {
+        EditorSession session = new EditorSession(spell, "xqxq  xqxq");
+        assertEquals(2, session.getDiagnostics().size());
+        assertTrue(session.edit(5, 0, " ").isEmpty());
+        assertEquals(7, session.getDiagnostics().get(1).getOffset());
+    }
+
+    /**
+     * Applies a diff the way an editor would: drops the removed diagnostics,
+     * shifts the ones after the edit and adds the new ones.
+     */
+    private static List<String> apply(List<String> client, DiagnosticDiff diff, int offset, int removed, int delta) {
+        List<String> gone = keys(diff.getRemoved());
+        List<String> next = new ArrayList<>();
+        for (String key : client) {
+            if (gone.remove(key)) {
+                continue;
+            }
+            String[] parts = key.split(":", 2);
+            int at = Integer.parseInt(parts[0]);
+            assertTrue("diagnostic left inside the edit: " + key, at < offset || at >= offset + removed);
+            next.add((at >= offset + removed ? at + delta : at) + ":" + parts[1]);
+        }
+        assertTrue("removed unknown diagnostics " + gone, gone.isEmpty());
+        next.addAll(keys(diff.getAdded()));
+        Collections.sort(next, BY_OFFSET);
+        return next;
+    }
+
+    private static List<String> keys(List<Diagnostic> diagnostics) {
+        List<String> keys = new ArrayList<>();
+        for (Diagnostic d : diagnostics) {
+            keys.add(d.getOffset() + ":" + d.getLength() + ":" + d.getWord() + ":"
+                    + Arrays.toString(d.getSuggestions()));
+        }
+        return keys;
+    }
+
+    private static final Comparator<String> BY_OFFSET = new Comparator<String>() {
+        @Override
+        public int compare(String a, String b) {
+            return Integer.compare(Integer.parseInt(a.split(":")[0]), Integer.parseInt(b.split(":")[0]));
+        }
+    };
+
+}
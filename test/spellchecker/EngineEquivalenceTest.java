@@ -0,0 +1,150 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks every suggestion engine on every lexicon type against a brute force
+ * search of the dictionary: the suggestions must be exactly the words within
+ * the maximum distance of the misspelling.
+ *
+ * @author russell
+ */
+public class EngineEquivalenceTest {
+
+    private static final int QUERIES = 150;
+
+    private final List<String> dictionary = TestWords.dictionary(2000, 7, new Random(5));
+
+    @Test
+    public void editsFindAllWordsOneEditAway() {
+        for (LexiconType type : LexiconType.values()) {
+            assertMatchesBruteForce(SuggestionEngine.EDITS, type, 1, 0);
+        }
+    }
+
+    @Test
+    public void symmetricDeleteFindsAllWordsWithinDistance() {
+        for (int distance = 1; distance <= 3; distance++) {
+            assertMatchesBruteForce(SuggestionEngine.SYMMETRIC_DELETE, LexiconType.HASH, distance, 0);
+        }
+    }
+
+    @Test
+    public void trieFindsAllWordsWithinDistance() {
+        for (int distance = 1; distance <= 3; distance++) {
+            assertMatchesBruteForce(SuggestionEngine.TRIE, LexiconType.HASH, distance, 0);
+        }
+    }
+
+    @Test
+    public void automatonFindsAllWordsWithinDistance() {
+        for (int distance = 1; distance <= LevenshteinAutomaton.MAX_DISTANCE; distance++) {
+            assertMatchesBruteForce(SuggestionEngine.AUTOMATON, LexiconType.HASH, distance, 0);
+        }
+    }
+
+    @Test
+    public void lettersOutsideLatinAreSuggested() {
+        for (SuggestionEngine engine : SuggestionEngine.values()) {
+            SpellCheckerConfig config = new SpellCheckerConfig();
+            config.setEngine(engine);
+            SpellChecker spell = new SpellChecker(Arrays.asList("café", "don't", "naïve"), config);
+            assertEquals(engine.toString(), "[café]", Arrays.toString(spell.wordFix("cafe")));
+            assertEquals(engine.toString(), "[don't]", Arrays.toString(spell.wordFix("dont")));
+            assertEquals(engine.toString(), "[naïve]", Arrays.toString(spell.wordFix("naive")));
+        }
+    }
+
+    @Test
+    public void bloomFilterDoesNotChangeSuggestions() {
+        for (SuggestionEngine engine : SuggestionEngine.values()) {
+            assertMatchesBruteForce(engine, LexiconType.HASH, 1, 0.01);
+        }
+    }
+
+    @Test
+    public void suggestionCacheDoesNotChangeSuggestions() {
+        SpellChecker plain = new SpellChecker(Arrays.asList("Paris", "café", "hello", "help"));
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setSuggestionCacheSize(16);
+        SpellChecker cached = new SpellChecker(Arrays.asList("Paris", "café", "hello", "help"), config);
+        for (String word : new String[]{"Parsi", "cafe", "CAFÉ", " helo", "helo", "Helo"}) {
+            // The second round is answered from the cache.
+            for (int round = 0; round < 2; round++) {
+                assertEquals(word, Arrays.toString(plain.wordFix(word)), Arrays.toString(cached.wordFix(word)));
+            }
+        }
+    }
+
+    @Test
+    public void suggestionCacheFollowsDictionaryChanges() {
+        SpellChecker plain = new SpellChecker(Arrays.asList("hello", "help"));
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setSuggestionCacheSize(16);
+        SpellChecker cached = new SpellChecker(Arrays.asList("hello", "help"), config);
+        assertEquals(Arrays.toString(plain.wordFix("helo")), Arrays.toString(cached.wordFix("helo")));
+        plain.addWord("hero");
+        cached.addWord("hero");
+        assertEquals(Arrays.toString(plain.wordFix("helo")), Arrays.toString(cached.wordFix("helo")));
+        plain.removeWord("help");
+        cached.removeWord("help");
+        assertEquals(Arrays.toString(plain.wordFix("helo")), Arrays.toString(cached.wordFix("helo")));
+        assertEquals(3, cached.getCacheStats().getMisses());
+    }
+
+    private void assertMatchesBruteForce(SuggestionEngine engine, LexiconType type, int distance,
+            double bloomFalsePositiveRate) {
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setEngine(engine);
+        config.setMaxDistance(distance);
+        config.setLexiconType(type);
+        config.setBloomFalsePositiveRate(bloomFalsePositiveRate);
+        SpellChecker spell = new SpellChecker(dictionary, config);
+        Random random = new Random(distance);
+        for (int i = 0; i < QUERIES; i++) {
+            String word = TestWords.word(1 + random.nextInt(8), random);
+            Set<String> expected = new TreeSet<>();
+            for (String candidate : dictionary) {
+                if (EditDistance.distance(word, candidate, distance) <= distance) {
+                    expected.add(candidate);
+                }
+            }
+            Set<String> found = new TreeSet<>();
+            String[] fixes = spell.wordFix(word);
+            if (fixes != null) {
+                found.addAll(Arrays.asList(fixes));
+            }
+            assertEquals(engine + " " + type + " distance " + distance + " \"" + word + "\"", expected, found);
+        }
+    }
+
+}
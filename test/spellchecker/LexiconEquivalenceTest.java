@@ -0,0 +1,175 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Checks that every lexicon holds exactly the words it was built from, by
+ * looking up the words and near misses of them both as Strings and as char
+ * ranges.
+ *
+ * @author russell
+ */
+public class LexiconEquivalenceTest {
+
+    private final List<String> words = TestWords.dictionary(5000, 9, new Random(11));
+    private final Set<String> expected = new HashSet<>(words);
+
+    @Test
+    public void hashLexicon() {
+        HashLexicon lexicon = new HashLexicon(words);
+        assertHoldsExactly(lexicon);
+        assertEquals(expected, new HashSet<>(lexicon.words()));
+    }
+
+    @Test
+    public void perfectHashLexicon() {
+        PerfectHashLexicon lexicon = new PerfectHashLexicon(words);
+        assertHoldsExactly(lexicon);
+        assertEquals(expected, new HashSet<>(lexicon.words()));
+    }
+
+    @Test
+    public void frontCodedLexicon() {
+        FrontCodedLexicon lexicon = new FrontCodedLexicon(words);
+        assertHoldsExactly(lexicon);
+        assertEquals(expected, new HashSet<>(lexicon.words()));
+    }
+
+    @Test
+    public void trieLexicon() {
+        TrieLexicon lexicon = new TrieLexicon(words);
+        assertHoldsExactly(lexicon);
+        assertEquals(expected, new HashSet<>(lexicon.words()));
+    }
+
+    @Test
+    public void lexiconSnapshot() throws IOException {
+        Path file = Files.createTempFile("lexicon", ".snap");
+        try {
+            LexiconSnapshot.write(words, file);
+            LexiconSnapshot lexicon = LexiconSnapshot.load(file);
+            assertHoldsExactly(lexicon);
+            assertEquals(words, lexicon.words());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void filteredLexicon() {
+        assertHoldsExactly(new FilteredLexicon(new HashLexicon(words), words, 0.01));
+    }
+
+    @Test
+    public void layeredLexicon() {
+        List<String> base = words.subList(0, 3000);
+        List<String> layer = words.subList(2500, words.size());
+        LayeredLexicon layered = new LayeredLexicon(Arrays.asList(base, layer));
+        assertHoldsExactly(new LayerView(layered, 3));
+        assertEquals(3000, new LayerView(layered, 1).size());
+        assertEquals(2500, new LayerView(layered, 2).size());
+        assertNull(new LayerView(layered, 1).get(words.get(4000)));
+        assertNull(new LayerView(layered, 2).get(words.get(100)));
+        assertEquals(3, layered.layers(words.get(2700)));
+    }
+
+    @Test
+    public void bloomFilterCoversLayerViews() throws IOException {
+        Path file = Files.createTempFile("layer", ".txt");
+        try {
+            Files.write(file, words.subList(2500, words.size()));
+            SpellCheckerConfig config = new SpellCheckerConfig();
+            config.setBloomFalsePositiveRate(0.01);
+            config.addLayer("extra", file.toString());
+            SpellChecker spell = new SpellChecker(words.subList(0, 3000), config);
+            int base = spell.layerMask(SpellChecker.BASE_LAYER);
+            assertTrue(spell.wordValid(words.get(100), base));
+            assertFalse(spell.wordValid(words.get(4000), base));
+            assertTrue(spell.wordValid(words.get(4000), spell.layerMask("extra")));
+            BloomFilterStats stats = spell.getBloomFilterStats();
+            assertEquals(3, stats.getPassed());
+            assertEquals(1, stats.getFalsePositives());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void emptyLexicons() {
+        List<String> none = new ArrayList<>();
+        for (Lexicon lexicon : new Lexicon[]{new HashLexicon(none), new PerfectHashLexicon(none),
+            new FrontCodedLexicon(none), new TrieLexicon(none)}) {
+            assertEquals(0, lexicon.size());
+            assertNull(lexicon.get("a"));
+            assertNull(lexicon.get(""));
+        }
+    }
+
+    private void assertHoldsExactly(Lexicon lexicon) {
+        String name = lexicon.getClass().getSimpleName();
+        assertEquals(name, expected.size(), lexicon.size());
+        for (String word : words) {
+            assertEquals(name, word, lexicon.get(word));
+            char[] chars = ("#" + word + "#").toCharArray();
+            assertEquals(name, word, lexicon.get(chars, 1, word.length(), word.hashCode()));
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            String word = words.get(random.nextInt(words.size()));
+            int at = random.nextInt(word.length() + 1);
+            char extra = TestWords.ALPHABET.charAt(random.nextInt(TestWords.ALPHABET.length()));
+            String miss = word.substring(0, at) + extra + word.substring(at);
+            if (!expected.contains(miss)) {
+                assertNull(name + " " + miss, lexicon.get(miss));
+                char[] chars = miss.toCharArray();
+                assertNull(name + " " + miss, lexicon.get(chars, 0, chars.length, miss.hashCode()));
+            }
+        }
+        assertNull(name, lexicon.get("zzz"));
+    }
+
+    @Test
+    public void hitsReturnTheStoredString() {
+        HashLexicon lexicon = new HashLexicon(words);
+        String word = words.get(0);
+        assertSame(word, lexicon.get(new String(word.toCharArray())));
+    }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Writes snapshots, maps them back and checks that a spell checker loaded
+ * from one behaves the same as one built from the words.
+ *
+ * @author russell
+ */
+public class LexiconSnapshotTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void roundTripKeepsTheWordsOnce() throws IOException {
+        Path file = dir.resolve("words.snap");
+        LexiconSnapshot.write(Arrays.asList("b", "a", "b", "ünï", ""), file);
+        LexiconSnapshot snapshot = LexiconSnapshot.load(file);
+        assertEquals(Arrays.asList("b", "a", "ünï", ""), snapshot.words());
+        assertEquals(4, snapshot.size());
+        assertEquals("ünï", snapshot.get("ünï"));
+        assertEquals("", snapshot.get(""));
+        assertEquals(null, snapshot.get("c"));
+    }
+
+    @Test
+    public void rewritingLeavesMappedSnapshotsAlone() throws IOException {
+        Path file = dir.resolve("words.snap");
+        LexiconSnapshot.write(Arrays.asList("old", "words"), file);
+        LexiconSnapshot old = LexiconSnapshot.load(file);
+        LexiconSnapshot.write(Arrays.asList("new"), file);
+        assertEquals(Arrays.asList("old", "words"), old.words());
+        assertEquals("words", old.get("words"));
+        assertEquals(Arrays.asList("new"), LexiconSnapshot.load(file).words());
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path left : files) {
+                assertEquals(file, left);
+            }
+        }
+    }
+
+    @Test
+    public void snapshotCheckerSuggestsLikeHeapChecker() throws IOException {
+        List<String> words = TestWords.dictionary(2000, 7, new Random(9));
+        SpellChecker mapped = mappedChecker(words);
+        SpellChecker heap = new SpellChecker(words);
+        Random random = new Random(4);
+        for (int i = 0; i < 500; i++) {
+            String word = TestWords.word(1 + random.nextInt(8), random);
+            assertEquals(word, heap.wordValid(word), mapped.wordValid(word));
+            assertArrayEquals(word, heap.wordFix(word), mapped.wordFix(word));
+        }
+    }
+
+    @Test
+    public void snapshotCheckerKeepsTheAlphabet() throws IOException {
+        List<String> words = Arrays.asList("don't", "café", "help");
+        SpellChecker mapped = mappedChecker(words);
+        assertArrayEquals(new String[]{"don't"}, mapped.wordFix("dont'"));
+        assertArrayEquals(new String[]{"café"}, mapped.wordFix("cafée"));
+    }
+
+    @Test
+    public void snapshotCheckerTakesRuntimeChanges() throws IOException {
+        SpellChecker spell = mappedChecker(Arrays.asList("hello", "help"));
+        assertTrue(spell.addWord("hullo"));
+        assertTrue(spell.removeWord("help"));
+        assertTrue(spell.wordValid("hullo"));
+        assertFalse(spell.wordValid("help"));
+        assertArrayEquals(new String[]{"hello", "hullo"}, sorted(spell.wordFix("hallo")));
+    }
+
+    @Test
+    public void compilerParsesWordCounts() throws IOException {
+        Path dictionary = dir.resolve("dictionary.txt");
+        Path file = dir.resolve("words.snap");
+        Files.write(dictionary, "hello 5\r\nworld\nhelp 3\n".getBytes(StandardCharsets.UTF_8));
+        LexiconSnapshot.main(new String[]{dictionary.toString(), file.toString()});
+        assertEquals(Arrays.asList("hello", "world", "help"), LexiconSnapshot.load(file).words());
+    }
+
+    @Test
+    public void otherVersionsAreRejected() throws IOException {
+        Path file = dir.resolve("words.snap");
+        LexiconSnapshot.write(Arrays.asList("a"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4, LexiconSnapshot.VERSION + 1);
+        Files.write(file, bytes);
+        assertRejected(file);
+    }
+
+    @Test
+    public void truncatedSnapshotsAreRejected() throws IOException {
+        Path file = dir.resolve("words.snap");
+        LexiconSnapshot.write(Arrays.asList("a", "b", "c"), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertRejected(file);
+    }
+
+    private SpellChecker mappedChecker(List<String> words) throws IOException {
+        Path file = dir.resolve("words.snap");
+        LexiconSnapshot.write(words, file);
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setSnapshotPath(file.toString());
+        return new SpellChecker(config);
+    }
+
+    private static void assertRejected(Path file) {
+        try {
+            LexiconSnapshot.load(file);
+            fail("loaded " + file);
+        } catch (IOException expected) {
+            // The snapshot must not be used.
+        }
+    }
+
+    private static String[] sorted(String[] words) {
+        String[] copy = words.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Compares the hash set with java.util.HashSet over random adds and removes.
+ * The keys are built from "Aa" and "BB", which have the same hash code, so
+ * the runs of filled slots are long and removals have entries to shift back.
+ *
+ * @author russell
+ */
+public class MyHashSetTest {
+
+    @Test
+    public void behavesLikeHashSet() {
+        Random random = new Random(3);
+        MyHashSet<String> set = new MyHashSet<>(1);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 20000; i++) {
+            String key = key(random);
+            if (random.nextInt(3) == 0) {
+                assertEquals(key, expected.remove(key), set.remove(key));
+            } else {
+                assertEquals(key, expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+        }
+        for (int i = 0; i < 2000; i++) {
+            String key = key(random);
+            assertEquals(key, expected.contains(key) ? key : null, set.get(key));
+        }
+    }
+
+    @Test
+    public void getReturnsTheStoredEntry() {
+        MyHashSet<String> set = new MyHashSet<>(4);
+        String stored = new String("word");
+        set.add(stored);
+        assertFalse(set.add(new String("word")));
+        assertSame(stored, set.get(new String("word")));
+        assertNull(set.get(null));
+        assertFalse(set.remove(null));
+    }
+
+    @Test
+    public void ofHoldsTheSameEntriesAsAdds() {
+        // Big enough for several ranges, so the entries are placed in parallel
+        // whenever the common pool has more than one thread.
+        Random random = new Random(5);
+        List<String> entries = new ArrayList<>();
+        for (int i = 0; i < 400000; i++) {
+            entries.add(random.nextInt(8) == 0 ? key(random) : Integer.toString(random.nextInt(300000)));
+        }
+        MyHashSet<String> set = MyHashSet.of(entries);
+        Set<String> expected = new HashSet<>(entries);
+        assertEquals(expected.size(), set.size());
+        for (String entry : entries) {
+            assertEquals(entry, set.get(new String(entry.toCharArray())));
+        }
+        assertNull(set.get("-1"));
+        for (String entry : expected) {
+            assertTrue(entry, set.remove(entry));
+        }
+        assertEquals(0, set.size());
+    }
+
+    private static String key(Random random) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            key.append(random.nextBoolean() ? "Aa" : "BB");
+        }
+        return key.append(random.nextInt(40)).toString();
+    }
+
+}
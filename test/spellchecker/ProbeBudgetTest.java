@@ -0,0 +1,104 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ * Checks that the budgeted wordFix makes exactly the probes it is allowed and
+ * reports whether the search finished.
+ *
+ * @author russell
+ */
+public class ProbeBudgetTest {
+
+    private final List<String> dictionary = TestWords.dictionary(2000, 7, new Random(2));
+
+    @Test
+    public void exactBudgetFinishesTheSearch() {
+        for (SuggestionEngine engine : SuggestionEngine.values()) {
+            SpellChecker spell = checker(engine, 2);
+            for (String word : new String[]{"abcde", "eabdc", "dd"}) {
+                Suggestions full = spell.wordFix(word, 1000, 0, 0);
+                assertTrue(engine + " " + word, full.isComplete());
+                int needed = full.getProbes();
+                Suggestions exact = spell.wordFix(word, 1000, 0, needed);
+                assertTrue(engine + " " + word, exact.isComplete());
+                assertEquals(engine + " " + word, needed, exact.getProbes());
+                assertArrayEquals(engine + " " + word, full.getWords(), exact.getWords());
+                Suggestions short1 = spell.wordFix(word, 1000, 0, needed - 1);
+                assertFalse(engine + " " + word, short1.isComplete());
+                assertEquals(engine + " " + word, needed - 1, short1.getProbes());
+            }
+        }
+    }
+
+    @Test
+    public void singleProbeIsMade() {
+        for (SuggestionEngine engine : SuggestionEngine.values()) {
+            Suggestions one = checker(engine, 1).wordFix("abcde", 10, 0, 1);
+            assertEquals(engine.toString(), 1, one.getProbes());
+            assertFalse(engine.toString(), one.isComplete());
+        }
+    }
+
+    @Test
+    public void budgetBoundsLongWords() {
+        // A long word has a huge number of delete variants at distance 3.
+        StringBuilder longWord = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            longWord.append(TestWords.ALPHABET.charAt(i % TestWords.ALPHABET.length()));
+        }
+        for (SuggestionEngine engine : SuggestionEngine.values()) {
+            Suggestions some = checker(engine, engine == SuggestionEngine.EDITS ? 1 : 3)
+                    .wordFix(longWord.toString(), 5, 0, 100);
+            assertEquals(engine.toString(), 100, some.getProbes());
+            assertFalse(engine.toString(), some.isComplete());
+        }
+    }
+
+    @Test
+    public void limitKeepsTheBestRankedWords() {
+        SpellChecker spell = new SpellChecker(Arrays.asList("cat", "cart", "at", "cast", "cut"));
+        Suggestions all = spell.wordFix("cat", 10, 0, 0);
+        Suggestions two = spell.wordFix("cat", 2, 0, 0);
+        assertEquals(2, two.getWords().length);
+        assertArrayEquals(Arrays.copyOf(all.getWords(), 2), two.getWords());
+    }
+
+    private SpellChecker checker(SuggestionEngine engine, int distance) {
+        SpellCheckerConfig config = new SpellCheckerConfig();
+        config.setEngine(engine);
+        config.setMaxDistance(distance);
+        return new SpellChecker(dictionary, config);
+    }
+
+}
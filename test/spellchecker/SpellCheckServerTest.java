@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Talks to a server over the loopback interface.
+ *
+ * @author russell
+ */
+public class SpellCheckServerTest {
+
+    private SpellCheckServer server;
+    private Socket client;
+    private OutputStream out;
+    private BufferedReader in;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new SpellCheckServer(new SpellChecker(Arrays.asList("hello", "world")), 0);
+        server.start();
+        client = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        // A server that holds an answer back fails the test instead of hanging it.
+        client.setSoTimeout(10000);
+        out = client.getOutputStream();
+        in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void answersBeforeAPartialLine() throws IOException {
+        send("Hello\nwor");
+        assertEquals("OK\thello", in.readLine());
+        send("ld\n");
+        assertEquals("OK\tworld", in.readLine());
+    }
+
+    @Test
+    public void answersLinesInOrder() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            lines.append(i % 2 == 0 ? "world\r\n" : " \n");
+        }
+        lines.append("helo");
+        send(lines.toString());
+        client.shutdownOutput();
+        for (int i = 0; i < 500; i++) {
+            assertEquals("OK\tworld", in.readLine());
+        }
+        assertEquals("MISS\thelo\thello", in.readLine());
+        assertNull(in.readLine());
+    }
+
+    private void send(String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Random words over a small alphabet for the tests. The alphabet is small so
+ * that misspellings have many neighbours in the dictionary, and it has a non
+ * ASCII letter and an apostrophe so the engines are not tested on a to z
+ * only.
+ *
+ * @author russell
+ */
+final class TestWords {
+
+    static final String ALPHABET = "abcdeé'";
+
+    private TestWords() {
+    }
+
+    /**
+     * Makes a dictionary of distinct words.
+     *
+     * @param count Number of words.
+     * @param maxLength Longest word.
+     * @param random Source of the words.
+     * @return The words in the order they were made.
+     */
+    static List<String> dictionary(int count, int maxLength, Random random) {
+        Set<String> words = new LinkedHashSet<>();
+        while (words.size() < count) {
+            words.add(word(1 + random.nextInt(maxLength), random));
+        }
+        return new ArrayList<>(words);
+    }
+
+    /**
+     * Makes one word.
+     *
+     * @param length Number of characters.
+     * @param random Source of the characters.
+     * @return The word.
+     */
+    static String word(int length, Random random) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * Checks that the batch mode and editor sessions split free text into the
+ * same words as the document checker, in particular around punctuation and
+ * spaces outside ASCII. The dictionary holds no word of the text, so both report every word.
+ *
+ * @author russell
+ */
+public class WordSplittingTest {
+
+    // Dashes, quotes, spaces and other characters that separate words, and
+    // letters and marks that do not.
+    private static final String[] PIECES = {"word", "\u00e9", "e\u0301", "na\u00efve", "stra\u00dfe",
+        "\u03bb\u03cc\u03b3\u03bf\u03c2", "\u0441\u043b\u043e\u0432\u043e", "\ud835\udc00", "\u2014", "\u2013",
+        "\u00a0", "\u2019", "\u201c", "\u201d", "\u00ab", "\u2026", "\u3000", "\ud83d\ude00", "'", "-", " ",
+        "\n", ".", "7", "\u00b2"};
+
+    private final SpellChecker spell = new SpellChecker(Arrays.asList("zzz"));
+
+    @Test
+    public void punctuationSplitsWords() throws IOException {
+        String text = "word\u2014other \u201cquoted\u201d it\u2019s a\u00a0b caf\u00e9 cafe\u0301\u2026end";
+        List<String> expected = Arrays.asList("word", "other", "quoted", "it", "s", "a", "b", "caf\u00e9",
+                "cafe\u0301", "end");
+        assertEquals(expected, batchWords(text));
+        assertEquals(expected, documentWords(text));
+        assertEquals(expected, sessionWords(text));
+    }
+
+    @Test
+    public void batchCheckSplitsLikeDocumentChecker() throws IOException {
+        Random random = new Random(8);
+        for (int n = 0; n < 50; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                text.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertEquals(text.toString(), documentWords(text.toString()), batchWords(text.toString()));
+        }
+    }
+
+    @Test
+    public void editorSessionSplitsLikeDocumentChecker() throws IOException {
+        Random random = new Random(9);
+        for (int n = 0; n < 50; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                text.append(PIECES[random.nextInt(PIECES.length)]);
+            }
+            assertEquals(text.toString(), documentWords(text.toString()), sessionWords(text.toString()));
+        }
+    }
+
+    private List<String> sessionWords(String text) {
+        List<String> words = new ArrayList<>();
+        for (Diagnostic diagnostic : new EditorSession(spell, text).getDiagnostics()) {
+            words.add(diagnostic.getWord());
+        }
+        return words;
+    }
+
+    private List<String> batchWords(String text) throws IOException {
+        StringWriter out = new StringWriter();
+        new BatchCheck(spell, BatchCheck.Format.TSV, true, 1).run(new StringReader(text), out);
+        List<String> words = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            if (!line.isEmpty()) {
+                words.add(line.split("\t")[1]);
+            }
+        }
+        return words;
+    }
+
+    private List<String> documentWords(String text) throws IOException {
+        Path file = Files.createTempFile("words", ".txt");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            StringWriter out = new StringWriter();
+            new DocumentChecker(spell).check(file, out);
+            List<String> words = new ArrayList<>();
+            for (String line : out.toString().split("\n")) {
+                if (!line.isEmpty()) {
+                    words.add(line.split("\t")[1]);
+                }
+            }
+            return words;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+}
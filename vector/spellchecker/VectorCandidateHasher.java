@@ -0,0 +1,60 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2016 Russell.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package spellchecker;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Hashes a batch of candidates with the Vector API, as many lanes at once as
+ * the preferred species of the CPU holds. Only loaded by CandidateHasher.load
+ * when jdk.incubator.vector is in the boot layer. The lookups that follow are
+ * not vectorized.
+ *
+ * @author russell
+ */
+class VectorCandidateHasher extends CandidateHasher {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    VectorCandidateHasher() {
+    }
+
+    @Override
+    void hash(int base, int step, int[] chars, int count, int[] hashes) {
+        int k = 0;
+        for (int bound = SPECIES.loopBound(count); k < bound; k += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, chars, k).mul(step).add(base).intoArray(hashes, k);
+        }
+        for (; k < count; k++) {
+            hashes[k] = base + chars[k] * step;
+        }
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+}